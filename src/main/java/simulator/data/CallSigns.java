@@ -0,0 +1,115 @@
+package simulator.data;
+
+/**
+ * Packs call signs of up to 12 characters from {@code [0-9A-Z]} into a long, base 37 with 0 as
+ * padding, so they can be stored and compared as primitives and only turned into text on demand.
+ * Any other call sign is kept in {@link IdentityDictionary#IDENTIFIERS} and packs to the negative
+ * {@code ~code}, so every call sign packs to exactly one value and unpacks to the same text.
+ */
+public final class CallSigns {
+  public static final int MAX_LENGTH = 12;
+
+  private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+  private static final int RADIX = ALPHABET.length() + 1;
+
+  private CallSigns() {
+  }
+
+  public static long pack(CharSequence callSign) {
+    if (callSign.length() > MAX_LENGTH) {
+      return packText(callSign.toString());
+    }
+    long packed = 0;
+    for (int i = 0; i < callSign.length(); i++) {
+      int symbol = symbol(callSign.charAt(i));
+      if (symbol < 0) {
+        return packText(callSign.toString());
+      }
+      packed = packed * RADIX + symbol;
+    }
+    return packed;
+  }
+
+  /**
+   * Packs {@code prefix} followed by {@code number} zero-padded to {@code minDigits}, without
+   * building the intermediate string unless it does not fit the numeric form.
+   */
+  public static long pack(String prefix, int number, int minDigits) {
+    if (number < 0) {
+      throw new IllegalArgumentException("Negative call sign number: " + number);
+    }
+    int digits = Math.max(minDigits, digitCount(number));
+    if (prefix.length() + digits > MAX_LENGTH) {
+      return packText(prefix, number, digits);
+    }
+    long packed = 0;
+    for (int i = 0; i < prefix.length(); i++) {
+      int symbol = symbol(prefix.charAt(i));
+      if (symbol < 0) {
+        return packText(prefix, number, digits);
+      }
+      packed = packed * RADIX + symbol;
+    }
+    int divisor = 1;
+    for (int i = 1; i < digits; i++) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      packed = packed * RADIX + (number / divisor) % 10 + 1;
+    }
+    return packed;
+  }
+
+  public static String unpack(long packed) {
+    if (packed < 0) {
+      return IdentityDictionary.IDENTIFIERS.decode((int) ~packed);
+    }
+    return appendTo(packed, new StringBuilder(MAX_LENGTH)).toString();
+  }
+
+  public static StringBuilder appendTo(long packed, StringBuilder target) {
+    if (packed < 0) {
+      return target.append(IdentityDictionary.IDENTIFIERS.decode((int) ~packed));
+    }
+    int length = 0;
+    for (long rest = packed; rest != 0; rest /= RADIX) {
+      length++;
+    }
+    int start = target.length();
+    target.setLength(start + length);
+    for (int i = start + length - 1; packed != 0; i--, packed /= RADIX) {
+      target.setCharAt(i, ALPHABET.charAt((int) (packed % RADIX) - 1));
+    }
+    return target;
+  }
+
+  static int digitCount(int number) {
+    int digits = 1;
+    while (number >= 10) {
+      number /= 10;
+      digits++;
+    }
+    return digits;
+  }
+
+  private static long packText(String prefix, int number, int digits) {
+    StringBuilder text = new StringBuilder(prefix.length() + digits).append(prefix);
+    for (int i = digitCount(number); i < digits; i++) {
+      text.append('0');
+    }
+    return packText(text.append(number).toString());
+  }
+
+  private static long packText(String callSign) {
+    return ~(long) IdentityDictionary.IDENTIFIERS.encode(callSign);
+  }
+
+  /**
+   * Digit of {@code c} in the packed form, or -1 if it has none; lower case is kept as text so
+   * it unpacks unchanged.
+   */
+  private static int symbol(char c) {
+    int index = ALPHABET.indexOf(c);
+    return index < 0 ? -1 : index + 1;
+  }
+}
@@ -0,0 +1,66 @@
+package simulator.data;
+
+/**
+ * Fixed-point encoding of a kinematic tuple in {@value #BYTES} bytes, close to the resolution AIS
+ * itself transmits (1/10000 minute positions, 0.1 knot speed, 0.1 degree course): latitude and
+ * longitude as int microdegrees, speed as short deci-knots and course as short deci-degrees.
+ *
+ * <p>Values are rounded to the nearest unit, so a decoded value is within half a unit of the
+ * original:
+ * <ul>
+ *   <li>latitude/longitude: {@value #MAX_POSITION_ERROR} degrees, under 6 cm on the ground</li>
+ *   <li>speed: 0.05 knots, about {@value #MAX_SPEED_ERROR} m/s; speeds saturate at
+ *       3276.7 knots</li>
+ *   <li>course: {@value #MAX_COURSE_ERROR} degrees; 360 wraps to 0</li>
+ * </ul>
+ */
+public final class CompactKinematics {
+  public static final int BYTES = 2 * Integer.BYTES + 2 * Short.BYTES;
+  public static final double MAX_POSITION_ERROR = 0.5e-6;
+  public static final double MAX_SPEED_ERROR = 0.0258;
+  public static final double MAX_COURSE_ERROR = 0.05;
+
+  private static final double MICRODEGREES_PER_DEGREE = 1e6;
+  private static final double METERS_PER_SECOND_PER_KNOT = 1852.0 / 3600.0;
+  private static final int DECI_DEGREES_PER_TURN = 3600;
+
+  private CompactKinematics() {
+  }
+
+  public static int encodeDegrees(double degrees) {
+    return (int) Math.round(degrees * MICRODEGREES_PER_DEGREE);
+  }
+
+  public static double decodeDegrees(int microdegrees) {
+    return microdegrees / MICRODEGREES_PER_DEGREE;
+  }
+
+  /**
+   * Encodes a speed in m/s as deci-knots, clamped to {@code 0 .. Short.MAX_VALUE}.
+   */
+  public static short encodeSpeed(double metersPerSecond) {
+    long deciKnots = Math.round(metersPerSecond / METERS_PER_SECOND_PER_KNOT * 10);
+    return (short) Math.max(0, Math.min(Short.MAX_VALUE, deciKnots));
+  }
+
+  public static double decodeSpeed(short deciKnots) {
+    return deciKnots / 10.0 * METERS_PER_SECOND_PER_KNOT;
+  }
+
+  /**
+   * Encodes a course in degrees as deci-degrees in {@code 0 .. 3599}.
+   */
+  public static short encodeCourse(double degrees) {
+    int deciDegrees = (int) (Math.round(degrees * 10) % DECI_DEGREES_PER_TURN);
+    return (short) (deciDegrees < 0 ? deciDegrees + DECI_DEGREES_PER_TURN : deciDegrees);
+  }
+
+  public static double decodeCourse(short deciDegrees) {
+    return deciDegrees / 10.0;
+  }
+
+  public static KinematicData decode(short speed, short course, int latitude, int longitude) {
+    return new KinematicData(decodeSpeed(speed), decodeCourse(course), decodeDegrees(latitude),
+        decodeDegrees(longitude));
+  }
+}
@@ -1,34 +1,175 @@
 package simulator.data;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 public class IdentityData implements Serializable {
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 4L;
 
-  private final String imo;
-  private final String mmsi;
-  private final String callSign;
-  private final String shipName;
-  private final String shipType;
+  private static final String IMO_PREFIX = "IMO";
+  private static final int IMO_DIGITS = 7;
+  private static final int MMSI_DIGITS = 9;
+
+  // Numeric-native, formatted only when text is requested; ~code in
+  // IdentityDictionary.IDENTIFIERS for text the number cannot reproduce
+  private final int imo;
+  private final int mmsi;
+  private final long callSign; // see CallSigns
+  // Dictionary-encoded, see IdentityDictionary
+  private final int shipNameCode;
+  private final int shipNameNumber; // 0 when the name has no hull number
+  private final int shipTypeCode;
 
   public IdentityData(String imo, String mmsi, String callSign, String shipName, String shipType) {
+    this.imo = encodeNumber(imo, IMO_PREFIX, IMO_DIGITS);
+    this.mmsi = encodeNumber(mmsi, "", MMSI_DIGITS);
+    this.callSign = CallSigns.pack(callSign);
+
+    int separator = shipName.lastIndexOf(' ');
+    int number = separator > 0 ? parseHullNumber(shipName, separator + 1) : 0;
+    this.shipNameCode = IdentityDictionary.SHIP_NAMES.encode(
+        number > 0 ? shipName.substring(0, separator) : shipName);
+    this.shipNameNumber = number;
+    this.shipTypeCode = IdentityDictionary.SHIP_TYPES.encode(shipType);
+  }
+
+  public IdentityData(int imo, int mmsi, long callSign, int shipNameCode, int shipNameNumber,
+      int shipTypeCode) {
     this.imo = imo;
     this.mmsi = mmsi;
     this.callSign = callSign;
-    this.shipName = shipName;
-    this.shipType = shipType;
+    this.shipNameCode = shipNameCode;
+    this.shipNameNumber = shipNameNumber;
+    this.shipTypeCode = shipTypeCode;
+  }
+
+  /**
+   * The number that {@link #appendPadded} formats back into {@code text}, or the text's code in
+   * {@link IdentityDictionary#IDENTIFIERS} when there is none.
+   */
+  private static int encodeNumber(String text, String prefix, int digits) {
+    int from = prefix.length();
+    int length = text.length() - from;
+    // Formatting pads to exactly the minimum width and never writes a leading zero beyond it
+    boolean canonical = text.startsWith(prefix) && length <= 10
+        && (length == digits || (length > digits && text.charAt(from) != '0'));
+    long number = 0;
+    for (int i = from; canonical && i < text.length(); i++) {
+      char c = text.charAt(i);
+      canonical = c >= '0' && c <= '9';
+      number = number * 10 + (c - '0');
+    }
+    if (canonical && number <= Integer.MAX_VALUE) {
+      return (int) number;
+    }
+    return ~IdentityDictionary.IDENTIFIERS.encode(text);
+  }
+
+  private static int parseHullNumber(String shipName, int from) {
+    if (from >= shipName.length() || shipName.length() - from > 9 || shipName.charAt(from) == '0') {
+      return 0;
+    }
+    int number = 0;
+    for (int i = from; i < shipName.length(); i++) {
+      char c = shipName.charAt(i);
+      if (c < '0' || c > '9') {
+        return 0;
+      }
+      number = number * 10 + (c - '0');
+    }
+    return number;
+  }
+
+  // Getters; the numbers are negative for identifiers kept as text
+  public int getImoNumber() { return imo; }
+  public int getMmsiNumber() { return mmsi; }
+  public long getPackedCallSign() { return callSign; }
+  public int getShipNameCode() { return shipNameCode; }
+  public int getShipNameNumber() { return shipNameNumber; }
+  public int getShipTypeCode() { return shipTypeCode; }
+
+  public String getImo() {
+    return appendImo(new StringBuilder(IMO_PREFIX.length() + IMO_DIGITS)).toString();
+  }
+
+  public String getMmsi() {
+    return appendMmsi(new StringBuilder(MMSI_DIGITS)).toString();
+  }
+
+  public String getCallSign() {
+    return CallSigns.unpack(callSign);
+  }
+
+  public String getShipName() {
+    String baseName = IdentityDictionary.SHIP_NAMES.decode(shipNameCode);
+    return shipNameNumber == 0 ? baseName : baseName + " " + shipNameNumber;
+  }
+
+  public String getShipType() {
+    return IdentityDictionary.SHIP_TYPES.decode(shipTypeCode);
   }
 
-  // Getters
-  public String getImo() { return imo; }
-  public String getMmsi() { return mmsi; }
-  public String getCallSign() { return callSign; }
-  public String getShipName() { return shipName; }
-  public String getShipType() { return shipType; }
+  // Text formatting into a caller-owned buffer, for encoders that reuse it across ships
+  public StringBuilder appendImo(StringBuilder target) {
+    return imo < 0 ? appendText(target, imo)
+        : appendPadded(target.append(IMO_PREFIX), imo, IMO_DIGITS);
+  }
+
+  public StringBuilder appendMmsi(StringBuilder target) {
+    return mmsi < 0 ? appendText(target, mmsi) : appendPadded(target, mmsi, MMSI_DIGITS);
+  }
+
+  public StringBuilder appendCallSign(StringBuilder target) {
+    return CallSigns.appendTo(callSign, target);
+  }
+
+  private static StringBuilder appendText(StringBuilder target, int encoded) {
+    return target.append(IdentityDictionary.IDENTIFIERS.decode(~encoded));
+  }
+
+  private static StringBuilder appendPadded(StringBuilder target, int value, int digits) {
+    for (int i = CallSigns.digitCount(value); i < digits; i++) {
+      target.append('0');
+    }
+    return target.append(value);
+  }
+
+  // Dictionary codes are only meaningful in the process that assigned them, so the serialized
+  // form carries the text and is encoded again by the receiving process
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("IdentityData is serialized through its text form");
+  }
+
+  private static final class SerializedForm implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String imo;
+    private final String mmsi;
+    private final String callSign;
+    private final String shipName;
+    private final String shipType;
+
+    SerializedForm(IdentityData identity) {
+      this.imo = identity.getImo();
+      this.mmsi = identity.getMmsi();
+      this.callSign = identity.getCallSign();
+      this.shipName = identity.getShipName();
+      this.shipType = identity.getShipType();
+    }
+
+    private Object readResolve() {
+      return new IdentityData(imo, mmsi, callSign, shipName, shipType);
+    }
+  }
 
   @Override
   public String toString() {
     return String.format("Identity[IMO:%s, MMSI:%s, CallSign:%s, Name:%s, Type:%s]",
-        imo, mmsi, callSign, shipName, shipType);
+        getImo(), getMmsi(), getCallSign(), getShipName(), getShipType());
   }
-}
\ No newline at end of file
+}
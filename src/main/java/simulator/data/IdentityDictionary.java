@@ -0,0 +1,22 @@
+package simulator.data;
+
+/**
+ * Shared string tables behind the dictionary-encoded fields of {@link IdentityData}.
+ */
+public final class IdentityDictionary {
+  public static final StringTable SHIP_TYPES = new StringTable("ship type");
+
+  /**
+   * Base ship names; the full name is the base name followed by a hull number.
+   */
+  public static final StringTable SHIP_NAMES = new StringTable("ship name");
+
+  /**
+   * IMO numbers, MMSI numbers and call signs kept as text because their numeric form cannot
+   * reproduce them.
+   */
+  public static final StringTable IDENTIFIERS = new StringTable("identifier");
+
+  private IdentityDictionary() {
+  }
+}
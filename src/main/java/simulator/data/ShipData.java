@@ -1,21 +1,38 @@
 package simulator.data;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class ShipData implements Serializable {
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
+
+  private static final AtomicLongFieldUpdater<ShipData> KINEMATIC_VERSION =
+      AtomicLongFieldUpdater.newUpdater(ShipData.class, "kinematicVersion");
+  private static final AtomicLongFieldUpdater<ShipData> IDENTITY_VERSION =
+      AtomicLongFieldUpdater.newUpdater(ShipData.class, "identityVersion");
 
   private final int shipId;
   private final AtomicReference<KinematicData> kinematicData;
   private final AtomicReference<IdentityData> identityData;
+  // When the kinematic state was fixed; identity updates leave it alone
   private volatile long lastUpdateTimestamp;
+  // Fleet epoch of the last change to each part, see ShipDataService.getFleetEpoch()
+  private volatile long kinematicVersion;
+  private volatile long identityVersion;
 
   public ShipData(int shipId, KinematicData kinematicData, IdentityData identityData) {
+    this(shipId, kinematicData, identityData, System.currentTimeMillis(), 0, 0);
+  }
+
+  public ShipData(int shipId, KinematicData kinematicData, IdentityData identityData,
+      long lastUpdateTimestamp, long kinematicVersion, long identityVersion) {
     this.shipId = shipId;
     this.kinematicData = new AtomicReference<>(kinematicData);
     this.identityData = new AtomicReference<>(identityData);
-    this.lastUpdateTimestamp = System.currentTimeMillis();
+    this.lastUpdateTimestamp = lastUpdateTimestamp;
+    this.kinematicVersion = kinematicVersion;
+    this.identityVersion = identityVersion;
   }
 
   // Getters
@@ -29,27 +46,70 @@ public class ShipData implements Serializable {
     return identityData.get();
   }
 
+  /**
+   * Time the kinematic state was last fixed, which dead reckoning advances from.
+   */
   public long getLastUpdateTimestamp() {
     return lastUpdateTimestamp;
   }
 
-  // Atomic updates for thread safety
-  public boolean updateKinematicData(KinematicData newData) {
-    boolean updated = kinematicData.compareAndSet(kinematicData.get(), newData);
-    if (updated) {
-      lastUpdateTimestamp = System.currentTimeMillis();
-    }
-    return updated;
+  public long getKinematicVersion() {
+    return kinematicVersion;
+  }
+
+  public long getIdentityVersion() {
+    return identityVersion;
+  }
+
+  /**
+   * Highest of the kinematic and identity versions.
+   */
+  public long getVersion() {
+    return Math.max(kinematicVersion, identityVersion);
   }
 
-  public boolean updateIdentityData(IdentityData newData) {
-    boolean updated = identityData.compareAndSet(identityData.get(), newData);
-    if (updated) {
-      lastUpdateTimestamp = System.currentTimeMillis();
-    }
+  // Atomic updates for thread safety. Data is written before the version, so a reader that sees
+  // a version also sees the data it stamps (or newer); versions never move backwards.
+  // Writers hold the monitor, so a state, the time it was fixed and its version change together;
+  // readers that need them as a set, such as snapshots, hold it too.
+
+  /**
+   * Derives the next kinematic state from the current one and the milliseconds from its fix to
+   * {@code now}, never negative, and fixes it at {@code now}; concurrent writers take turns, so
+   * no update is lost or counts the same elapsed time twice.
+   */
+  public synchronized KinematicData updateKinematicData(KinematicStep step, long now,
+      long version) {
+    KinematicData updated = step.next(kinematicData.get(), Math.max(0, now - lastUpdateTimestamp));
+    kinematicData.set(updated);
+    lastUpdateTimestamp = now;
+    KINEMATIC_VERSION.accumulateAndGet(this, version, Math::max);
     return updated;
   }
 
+  public synchronized boolean updateIdentityData(IdentityData newData, long version) {
+    identityData.set(newData);
+    IDENTITY_VERSION.accumulateAndGet(this, version, Math::max);
+    return true;
+  }
+
+  /**
+   * Copy of this ship whose kinematic state is {@code step} applied to the current one and the
+   * milliseconds from its fix to {@code now}; this ship is left unchanged and the copy keeps its
+   * fix time and versions.
+   */
+  public synchronized ShipData project(KinematicStep step, long now) {
+    KinematicData projected =
+        step.next(kinematicData.get(), Math.max(0, now - lastUpdateTimestamp));
+    return new ShipData(shipId, projected, identityData.get(), lastUpdateTimestamp,
+        kinematicVersion, identityVersion);
+  }
+
+  @FunctionalInterface
+  public interface KinematicStep {
+    KinematicData next(KinematicData current, long elapsedMillis);
+  }
+
   @Override
   public String toString() {
     return String.format("Ship[ID:%d, Kinematic:%s, Identity:%s]",
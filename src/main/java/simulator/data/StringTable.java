@@ -0,0 +1,85 @@
+package simulator.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only dictionary assigning small, stable int codes to strings. Decoding is a lock-free
+ * array load; codes are never reused, so a code handed out once stays valid for the JVM lifetime.
+ */
+public final class StringTable {
+  private final String name;
+  private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+  // Grown geometrically; entries at size and beyond are not handed out yet
+  private volatile String[] values = new String[0];
+  private volatile int size;
+
+  public StringTable(String name) {
+    this.name = name;
+  }
+
+  public int encode(String value) {
+    Integer code = codes.get(value);
+    return code != null ? code : register(value);
+  }
+
+  /**
+   * Code of {@code value}, or -1 if it was never encoded; unlike {@link #encode} it does not
+   * register the value.
+   */
+  public int codeOf(String value) {
+    Integer code = codes.get(value);
+    return code != null ? code : -1;
+  }
+
+  public int[] encodeAll(String... values) {
+    int[] encoded = new int[values.length];
+    for (int i = 0; i < values.length; i++) {
+      encoded[i] = encode(values[i]);
+    }
+    return encoded;
+  }
+
+  private synchronized int register(String value) {
+    Integer existing = codes.get(value);
+    if (existing != null) {
+      return existing;
+    }
+    String[] current = values;
+    int code = size;
+    if (code == current.length) {
+      current = Arrays.copyOf(current, Math.max(16, code * 2));
+      values = current;
+    }
+    current[code] = value;
+    // Publish the entry before the code so every handed-out code is decodable
+    size = code + 1;
+    codes.put(value, code);
+    return code;
+  }
+
+  public String decode(int code) {
+    if (code < 0 || code >= size) {
+      throw new IllegalArgumentException("Unknown " + name + " code: " + code);
+    }
+    return values[code];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Snapshot of the table in code order, e.g. for codecs that ship the dictionary once and then
+   * write codes.
+   */
+  public List<String> entries() {
+    int count = size;
+    return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(values, count)));
+  }
+
+  public String getName() { return name; }
+}
@@ -0,0 +1,44 @@
+package simulator.data;
+
+/**
+ * Recorded positions of one ship, oldest first. Filled by its producer through {@link #add} and
+ * read-only once handed out.
+ */
+public final class Track {
+  public static final Track EMPTY = new Track(0);
+
+  private final long[] timestamps;
+  private final double[] speeds;
+  private final double[] courses;
+  private final double[] latitudes;
+  private final double[] longitudes;
+  private int size;
+
+  public Track(int capacity) {
+    this.timestamps = new long[capacity];
+    this.speeds = new double[capacity];
+    this.courses = new double[capacity];
+    this.latitudes = new double[capacity];
+    this.longitudes = new double[capacity];
+  }
+
+  public void add(long timestamp, double speed, double course, double latitude, double longitude) {
+    timestamps[size] = timestamp;
+    speeds[size] = speed;
+    courses[size] = course;
+    latitudes[size] = latitude;
+    longitudes[size] = longitude;
+    size++;
+  }
+
+  public int size() { return size; }
+  public long getTimestamp(int index) { return timestamps[index]; }
+  public double getSpeed(int index) { return speeds[index]; }
+  public double getCourse(int index) { return courses[index]; }
+  public double getLatitude(int index) { return latitudes[index]; }
+  public double getLongitude(int index) { return longitudes[index]; }
+
+  public KinematicData getKinematicData(int index) {
+    return new KinematicData(speeds[index], courses[index], latitudes[index], longitudes[index]);
+  }
+}
@@ -1,9 +1,14 @@
 package simulator.generator;
 
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import simulator.data.CallSigns;
 import simulator.data.IdentityData;
+import simulator.data.IdentityDictionary;
 
+/**
+ * Generates ship identities. A ship's name follows from its id, so names are unique among the
+ * ships present; its type is drawn at random from {@link RandomStreams}, with the same sharing
+ * and splitting rules as {@link KinematicDataGenerator}.
+ */
 public class IdentityDataGenerator {
 
   private static final String[] SHIP_TYPES = {
@@ -19,42 +24,57 @@ public class IdentityDataGenerator {
       "Enterprise", "Challenger", "Discovery", "Endeavour"
   };
 
-  private final Random random = ThreadLocalRandom.current();
-  private int shipNameIndex = 0;
-  private int shipTypeIndex = 0;
+  private static final int[] SHIP_TYPE_CODES = IdentityDictionary.SHIP_TYPES.encodeAll(SHIP_TYPES);
+  private static final int[] SHIP_NAME_CODES = IdentityDictionary.SHIP_NAMES.encodeAll(SHIP_NAMES);
+
+  private final RandomStreams streams;
+
+  public IdentityDataGenerator() {
+    this(RandomStreams.randomSeed());
+  }
+
+  public IdentityDataGenerator(long seed) {
+    this(RandomStreams.shared(seed));
+  }
+
+  private IdentityDataGenerator(RandomStreams streams) {
+    this.streams = streams;
+  }
+
+  public long getSeed() { return streams.getSeed(); }
+
+  /**
+   * Generator drawing from stream {@code index} of this one's seed, for one thread at a time.
+   */
+  public IdentityDataGenerator split(long index) {
+    return new IdentityDataGenerator(streams.split(index));
+  }
 
   public IdentityData generateIdentityData(int shipId) {
+    int nameIndex = shipId - 1;
     return new IdentityData(
         generateIMO(shipId),
         generateMMSI(shipId),
         generateCallSign(shipId),
-        generateShipName(),
-        generateShipType()
+        SHIP_NAME_CODES[nameIndex % SHIP_NAMES.length],
+        nameIndex / SHIP_NAMES.length + 1,
+        generateShipTypeCode()
     );
   }
 
-  private String generateIMO(int shipId) {
-    return String.format("IMO%07d", 9000000 + shipId);
-  }
-
-  private String generateMMSI(int shipId) {
-    return String.format("%09d", 200000000 + shipId);
+  private int generateIMO(int shipId) {
+    return 9000000 + shipId;
   }
 
-  private String generateCallSign(int shipId) {
-    return String.format("CALL%04d", shipId);
+  private int generateMMSI(int shipId) {
+    return 200000000 + shipId;
   }
 
-  private synchronized String generateShipName() {
-    String name = SHIP_NAMES[shipNameIndex % SHIP_NAMES.length] +
-        " " + (shipNameIndex / SHIP_NAMES.length + 1);
-    shipNameIndex++;
-    return name;
+  private long generateCallSign(int shipId) {
+    return CallSigns.pack("CALL", shipId, 4);
   }
 
-  private synchronized String generateShipType() {
-    String type = SHIP_TYPES[shipTypeIndex % SHIP_TYPES.length];
-    shipTypeIndex = (shipTypeIndex + 1) % SHIP_TYPES.length;
-    return type;
+  private int generateShipTypeCode() {
+    return SHIP_TYPE_CODES[streams.current().nextInt(SHIP_TYPES.length)];
   }
 }
\ No newline at end of file
@@ -1,10 +1,21 @@
 package simulator.generator;
 
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import simulator.data.KinematicData;
 
+/**
+ * Generates initial ship positions and their random walk. Numbers come from {@link RandomStreams}:
+ * a generator built with a seed may be shared between threads, and {@link #split(long)} gives
+ * reproducible generators for workers that each own a part of the fleet.
+ */
 public class KinematicDataGenerator {
+  // Indexes into the primitive state used by the allocation-free update path
+  public static final int SPEED = 0;
+  public static final int COURSE = 1;
+  public static final int LATITUDE = 2;
+  public static final int LONGITUDE = 3;
+  public static final int STATE_SIZE = 4;
+
   private static final double MIN_LATITUDE = -90.0;
   private static final double MAX_LATITUDE = 90.0;
   private static final double MIN_LONGITUDE = -180.0;
@@ -14,7 +25,56 @@ public class KinematicDataGenerator {
   private static final double MIN_COURSE = 0.0;
   private static final double MAX_COURSE = 360.0;
 
-  private final Random random = ThreadLocalRandom.current();
+  private static final PositionIntegrator[] INTEGRATORS = createIntegrators();
+
+  private final RandomStreams streams;
+  private volatile MotionModel motionModel = MotionModel.GREAT_CIRCLE;
+
+  public KinematicDataGenerator() {
+    this(RandomStreams.randomSeed());
+  }
+
+  public KinematicDataGenerator(long seed) {
+    this(RandomStreams.shared(seed));
+  }
+
+  private KinematicDataGenerator(RandomStreams streams) {
+    this.streams = streams;
+  }
+
+  public long getSeed() { return streams.getSeed(); }
+
+  /**
+   * Generator drawing from stream {@code index} of this one's seed, for one thread at a time.
+   */
+  public KinematicDataGenerator split(long index) {
+    KinematicDataGenerator split = new KinematicDataGenerator(streams.split(index));
+    split.motionModel = motionModel;
+    return split;
+  }
+
+  /**
+   * Motion model for this generator and the generators split from it afterwards.
+   */
+  public void setMotionModel(MotionModel motionModel) {
+    this.motionModel = motionModel;
+  }
+
+  public MotionModel getMotionModel() { return motionModel; }
+
+  private static PositionIntegrator[] createIntegrators() {
+    MotionModel[] models = MotionModel.values();
+    PositionIntegrator[] integrators = new PositionIntegrator[models.length];
+    for (MotionModel model : models) {
+      integrators[model.ordinal()] = PositionIntegrator.create(model);
+    }
+    return integrators;
+  }
+
+  // Resolved per call: a shared generator draws from the calling thread's stream
+  private RandomGenerator random() {
+    return streams.current();
+  }
 
   public KinematicData generateInitialData() {
     return new KinematicData(
@@ -25,64 +85,85 @@ public class KinematicDataGenerator {
     );
   }
 
-  public KinematicData generateUpdate(KinematicData current) {
-    // Small random changes to simulate movement
-    double newSpeed = Math.max(0, current.getSpeed() + (random.nextDouble() - 0.5) * 2);
-    double newCourse = (current.getCourse() + (random.nextDouble() - 0.5) * 10 + 360) % 360;
-
-    // Calculate new position based on speed and course
-    double[] newPosition = calculateNewPosition(
-        current.getLatitude(), current.getLongitude(),
-        newSpeed, newCourse
-    );
-
-    return new KinematicData(
-        Math.min(newSpeed, MAX_SPEED),
-        newCourse,
-        newPosition[0],
-        newPosition[1]
-    );
+  /**
+   * Seconds from a fix at {@code fixTime} to {@code now}, both in milliseconds; zero if the
+   * clock went backwards.
+   */
+  public static double elapsedSeconds(long fixTime, long now) {
+    return Math.max(0, now - fixTime) / 1000.0;
   }
 
-  private double[] calculateNewPosition(double lat, double lon, double speed, double course) {
-    // Simple position calculation (approximate)
-    double distance = speed * 60.0; // distance in meters for 1 minute
-    double bearing = Math.toRadians(course);
-
-    double latRad = Math.toRadians(lat);
-    double lonRad = Math.toRadians(lon);
+  public KinematicData generateUpdate(KinematicData current, double seconds) {
+    double[] state = {
+        current.getSpeed(), current.getCourse(), current.getLatitude(), current.getLongitude()
+    };
+    advance(state, seconds);
+    return new KinematicData(state[SPEED], state[COURSE], state[LATITUDE], state[LONGITUDE]);
+  }
 
-    double earthRadius = 6371000; // meters
-    double delta = distance / earthRadius;
+  /**
+   * Applies one update to {@code state} in place, without allocating: the ship first moves for
+   * {@code seconds}, the time since its position was fixed, at its speed and course so far; then
+   * a new report changes speed and course a little. The array holds speed, course, latitude and
+   * longitude at {@link #SPEED}, {@link #COURSE}, {@link #LATITUDE} and {@link #LONGITUDE}.
+   */
+  public void advance(double[] state, double seconds) {
+    project(state, seconds);
 
-    double newLat = Math.asin(Math.sin(latRad) * Math.cos(delta) +
-        Math.cos(latRad) * Math.sin(delta) * Math.cos(bearing));
-    double newLon = lonRad + Math.atan2(Math.sin(bearing) * Math.sin(delta) * Math.cos(latRad),
-        Math.cos(delta) - Math.sin(latRad) * Math.sin(newLat));
+    // Small random changes to simulate movement
+    double newSpeed = Math.max(0, state[SPEED] + (random().nextDouble() - 0.5) * 2);
+    double newCourse = (state[COURSE] + (random().nextDouble() - 0.5) * 10 + 360) % 360;
+    state[SPEED] = Math.min(newSpeed, MAX_SPEED);
+    state[COURSE] = newCourse;
+  }
 
-    newLat = Math.toDegrees(newLat);
-    newLon = Math.toDegrees(newLon);
+  /**
+   * Moves {@code state} along its course at its speed for {@code seconds}, with no new report:
+   * where a ship fixed that long ago is now expected to be. Draws no random numbers, so any
+   * thread may call it.
+   */
+  public void project(double[] state, double seconds) {
+    PositionIntegrator.move(motionModel, state[SPEED], state[COURSE], seconds, state, LATITUDE,
+        state, LONGITUDE);
+  }
 
-    // Normalize coordinates
-    newLat = Math.max(MIN_LATITUDE, Math.min(MAX_LATITUDE, newLat));
-    newLon = (newLon + 540) % 360 - 180; // Normalize longitude
+  public KinematicData project(KinematicData fix, double seconds) {
+    double[] state = {fix.getSpeed(), fix.getCourse(), fix.getLatitude(), fix.getLongitude()};
+    project(state, seconds);
+    return new KinematicData(state[SPEED], state[COURSE], state[LATITUDE], state[LONGITUDE]);
+  }
 
-    return new double[]{newLat, newLon};
+  /**
+   * Applies one update to ships {@code 0 .. count - 1} of the parallel arrays in place, as
+   * {@link #advance(double[], double)} does for each with its own elapsed {@code seconds},
+   * drawing the same random numbers in the same order. The positions are integrated for the
+   * whole batch at once, with the Vector API when available.
+   */
+  public void advanceBatch(double[] speed, double[] course, double[] seconds, double[] latitude,
+      double[] longitude, int count) {
+    INTEGRATORS[motionModel.ordinal()].integrate(speed, course, seconds, latitude, longitude,
+        count);
+    RandomGenerator random = random();
+    for (int i = 0; i < count; i++) {
+      double newSpeed = Math.max(0, speed[i] + (random.nextDouble() - 0.5) * 2);
+      speed[i] = Math.min(newSpeed, MAX_SPEED);
+      course[i] = (course[i] + (random.nextDouble() - 0.5) * 10 + 360) % 360;
+    }
   }
 
   private double generateSpeed() {
-    return MIN_SPEED + random.nextDouble() * (MAX_SPEED - MIN_SPEED);
+    return MIN_SPEED + random().nextDouble() * (MAX_SPEED - MIN_SPEED);
   }
 
   private double generateCourse() {
-    return MIN_COURSE + random.nextDouble() * (MAX_COURSE - MIN_COURSE);
+    return MIN_COURSE + random().nextDouble() * (MAX_COURSE - MIN_COURSE);
   }
 
   private double generateLatitude() {
-    return MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+    return MIN_LATITUDE + random().nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
   }
 
   private double generateLongitude() {
-    return MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+    return MIN_LONGITUDE + random().nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
   }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package simulator.generator;
+
+/**
+ * How {@link PositionIntegrator} moves a ship along its course.
+ */
+public enum MotionModel {
+  /** Exact great-circle dead reckoning. */
+  GREAT_CIRCLE("Great circle (exact)"),
+  /**
+   * Equirectangular step on the plane tangent to the ship's position, along the mid-step
+   * bearing and scaled by the cosine of the mid-step latitude, without trigonometric calls.
+   * Within a millimeter of the great circle for the simulator's steps of a kilometer or so; ships
+   * near the poles or the antimeridian still take the exact step.
+   */
+  EQUIRECTANGULAR("Equirectangular (fast)");
+
+  private final String displayName;
+
+  MotionModel(String displayName) {
+    this.displayName = displayName;
+  }
+
+  public String getDisplayName() { return displayName; }
+
+  @Override
+  public String toString() {
+    return displayName;
+  }
+}
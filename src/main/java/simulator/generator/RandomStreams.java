@@ -0,0 +1,73 @@
+package simulator.generator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of reproducible random numbers for the generators, derived from a seed.
+ *
+ * <p>{@link #split(long)} derives an independent stream from the seed and a stream index alone,
+ * so the same seed and index give the same numbers no matter which thread asks or in what order.
+ * A split stream belongs to one thread at a time. The root instance returned by
+ * {@link #shared(long)} may be used from any thread: each thread draws from its own stream,
+ * numbered in the order threads first use it, so only single-threaded use is reproducible.
+ */
+public final class RandomStreams {
+  // Keeps per-thread streams apart from the ones handed out by split
+  private static final long THREAD_STREAMS = 0x5DEECE66DL;
+
+  private final long seed;
+  private final SplittableRandom stream;
+  private final ThreadLocal<SplittableRandom> threadStreams;
+
+  private RandomStreams(long seed, SplittableRandom stream,
+      ThreadLocal<SplittableRandom> threadStreams) {
+    this.seed = seed;
+    this.stream = stream;
+    this.threadStreams = threadStreams;
+  }
+
+  public static RandomStreams shared(long seed) {
+    long threadSeed = derive(seed, THREAD_STREAMS);
+    AtomicLong threads = new AtomicLong();
+    return new RandomStreams(seed, null, ThreadLocal.withInitial(
+        () -> new SplittableRandom(derive(threadSeed, threads.getAndIncrement()))));
+  }
+
+  /**
+   * Seed for a run that does not ask for one.
+   */
+  public static long randomSeed() {
+    return ThreadLocalRandom.current().nextLong();
+  }
+
+  /**
+   * Seed of stream {@code index} of {@code seed}: a SplitMix64 mix, so neighboring indexes give
+   * unrelated seeds. Derivations nest, which gives every component its own tree of streams.
+   */
+  public static long derive(long seed, long index) {
+    long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  public long getSeed() { return seed; }
+
+  /**
+   * Independent stream {@code index} of this one, for a single thread at a time.
+   */
+  public RandomStreams split(long index) {
+    long child = derive(seed, index);
+    return new RandomStreams(child, new SplittableRandom(child), null);
+  }
+
+  /**
+   * Generator to draw from on the calling thread.
+   */
+  public RandomGenerator current() {
+    return stream != null ? stream : threadStreams.get();
+  }
+}
@@ -9,18 +9,22 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.DecimalFormat;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import simulator.data.ShipData;
 import simulator.generator.IdentityDataGenerator;
 import simulator.generator.KinematicDataGenerator;
+import simulator.generator.MotionModel;
 import simulator.service.DataStreamSimulator;
 import simulator.service.ShipDataService;
+import simulator.store.MemoryFootprint;
+import simulator.store.StoreMode;
 
 public class MainFrame extends JFrame {
 
+  private static final int MAX_SHIPS = 10_000_000;
+
   private final ShipDataService shipDataService;
   private final DataStreamSimulator simulator;
 
@@ -29,6 +33,9 @@ public class MainFrame extends JFrame {
   private JTextField updateIntervalField;
   private JTextField kinematicPercentField;
   private JTextField identityPercentField;
+  private JComboBox<StoreMode> storeModeCombo;
+  private JComboBox<MotionModel> motionModelCombo;
+  private JCheckBox deadReckoningCheck;
   private JButton startButton;
   private JButton stopButton;
   private JButton configButton;
@@ -137,9 +144,27 @@ public class MainFrame extends JFrame {
     identityPercentField = new JTextField("5", 10);
     panel.add(identityPercentField, gbc);
 
-    // Buttons
+    // Row 3
     gbc.gridy = 3;
     gbc.gridx = 0;
+    panel.add(new JLabel("Store Mode:"), gbc);
+
+    gbc.gridx = 1;
+    storeModeCombo = new JComboBox<>(StoreMode.values());
+    storeModeCombo.setSelectedItem(shipDataService.getStoreMode());
+    panel.add(storeModeCombo, gbc);
+
+    gbc.gridx = 2;
+    panel.add(new JLabel("Motion Model:"), gbc);
+
+    gbc.gridx = 3;
+    motionModelCombo = new JComboBox<>(MotionModel.values());
+    motionModelCombo.setSelectedItem(shipDataService.getMotionModel());
+    panel.add(motionModelCombo, gbc);
+
+    // Buttons
+    gbc.gridy = 4;
+    gbc.gridx = 0;
     startButton = new JButton("Start Simulation");
     startButton.setBackground(new Color(34, 139, 34));
     startButton.setForeground(Color.WHITE);
@@ -159,6 +184,14 @@ public class MainFrame extends JFrame {
     configButton.addActionListener(e -> applyConfiguration());
     panel.add(configButton, gbc);
 
+    // Takes effect immediately: only changes how positions are read
+    gbc.gridx = 3;
+    deadReckoningCheck = new JCheckBox("Dead-reckon positions on read",
+        shipDataService.isDeadReckoningEnabled());
+    deadReckoningCheck.addActionListener(
+        e -> shipDataService.setDeadReckoningEnabled(deadReckoningCheck.isSelected()));
+    panel.add(deadReckoningCheck, gbc);
+
     return panel;
   }
 
@@ -236,7 +269,9 @@ public class MainFrame extends JFrame {
     // Update status labels
     shipCountLabel.setText("Ships: " + decimalFormat.format(shipDataService.getShipCount()));
     updateCountLabel.setText("Updates: " + decimalFormat.format(shipDataService.getTotalUpdates()));
-    memoryLabel.setText("Memory: " + getMemoryInfo());
+    MemoryFootprint footprint = shipDataService.getMemoryFootprint();
+    memoryLabel.setText("Memory: " + getMemoryInfo(footprint));
+    memoryLabel.setToolTipText(getFootprintDetails(footprint));
 
     // Update table data if simulation is running
     if (simulator.isRunning()) {
@@ -245,15 +280,11 @@ public class MainFrame extends JFrame {
   }
 
   private void updateTableData() {
-    List<ShipData> ships = shipDataService.getAllShips();
-
     // Clear existing data
     tableModel.setRowCount(0);
 
     // Add sample data (first 100 ships to avoid performance issues)
-    int displayLimit = Math.min(100, ships.size());
-    for (int i = 0; i < displayLimit; i++) {
-      ShipData ship = ships.get(i);
+    shipDataService.stream().limit(100).forEach(ship -> {
       Object[] row = {
           ship.getShipId(),
           ship.getIdentityData().getShipName(),
@@ -266,7 +297,7 @@ public class MainFrame extends JFrame {
           formatTimestamp(ship.getLastUpdateTimestamp())
       };
       tableModel.addRow(row);
-    }
+    });
   }
 
   private String formatTimestamp(long timestamp) {
@@ -278,11 +309,26 @@ public class MainFrame extends JFrame {
     }
   }
 
-  private String getMemoryInfo() {
+  private String getMemoryInfo(MemoryFootprint footprint) {
     Runtime runtime = Runtime.getRuntime();
     long usedMemory = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
     long maxMemory = runtime.maxMemory() / (1024 * 1024);
-    return usedMemory + "MB / " + maxMemory + "MB";
+    return usedMemory + "MB / " + maxMemory + "MB, fleet "
+        + footprint.getTotalBytes() / (1024 * 1024) + "MB ("
+        + decimalFormat.format(Math.round(footprint.getBytesPerShip())) + " B/ship)";
+  }
+
+  private String getFootprintDetails(MemoryFootprint footprint) {
+    StringBuilder details = new StringBuilder("<html>");
+    for (Map.Entry<String, Long> component : footprint.getComponents().entrySet()) {
+      details.append(component.getKey()).append(": ")
+          .append(decimalFormat.format(component.getValue() / 1024)).append(" KB<br>");
+    }
+    if (footprint.getOffHeapBytes() > 0) {
+      details.append("Off-heap: ")
+          .append(decimalFormat.format(footprint.getOffHeapBytes() / 1024)).append(" KB<br>");
+    }
+    return details.append("</html>").toString();
   }
 
   private class StartButtonListener implements ActionListener {
@@ -296,19 +342,23 @@ public class MainFrame extends JFrame {
   private void startSimulation() {
     try {
       int shipCount = Integer.parseInt(shipCountField.getText().trim());
-      if (shipCount < 1 || shipCount > 100000) {
+      if (shipCount < 1 || shipCount > MAX_SHIPS) {
         JOptionPane.showMessageDialog(this,
-            "Please enter a number between 1 and 100,000",
+            "Please enter a number between 1 and " + decimalFormat.format(MAX_SHIPS),
             "Invalid Input", JOptionPane.ERROR_MESSAGE);
         return;
       }
 
       applyConfiguration();
+      shipDataService.setStoreMode((StoreMode) storeModeCombo.getSelectedItem());
+      shipDataService.setMotionModel((MotionModel) motionModelCombo.getSelectedItem());
       simulator.startSimulation(shipCount);
 
       // Update UI state
       startButton.setEnabled(false);
       stopButton.setEnabled(true);
+      storeModeCombo.setEnabled(false);
+      motionModelCombo.setEnabled(false);
       statusLabel.setText("Status: Simulation Running (" + shipCount + " ships)");
       statusLabel.setForeground(Color.GREEN.darker());
 
@@ -329,6 +379,8 @@ public class MainFrame extends JFrame {
     // Update UI state
     startButton.setEnabled(true);
     stopButton.setEnabled(false);
+    storeModeCombo.setEnabled(true);
+    motionModelCombo.setEnabled(true);
     statusLabel.setText("Status: Stopped");
     statusLabel.setForeground(Color.RED);
 
@@ -1,26 +1,56 @@
 package simulator.service;
 
-import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
 
+/**
+ * Drives a {@link ShipDataService} with a tick of random updates every update interval. The
+ * simulator owns the service's clock: simulated time starts at the wall-clock time the simulator
+ * is created or started and advances by one update interval per tick, so ships move the same
+ * distance on every tick however late the tick runs.
+ */
 public class DataStreamSimulator {
+  private static final int BATCH_SIZE = 1024;
+
   private ScheduledExecutorService scheduler;
   private ScheduledFuture<?> simulationTask;
+  // One single-threaded worker per shard, so each shard always has the same writer
+  private ExecutorService[] shardWorkers = new ExecutorService[0];
   private final AtomicBoolean running = new AtomicBoolean(false);
-  private final Random random = new Random();
+  // Simulated epoch milliseconds, advanced by the tick in progress
+  private final AtomicLong simulatedTime = new AtomicLong(System.currentTimeMillis());
+  // Only the tick in progress draws from it; ticks never overlap
+  private RandomGenerator random;
 
   private final ShipDataService shipDataService;
 
   private int kinematicUpdatePercentage = 30;
   private int identityUpdatePercentage = 5;
+  private int membershipChangesPerTick = 0;
   private int updateIntervalMs = 1000;
 
   public DataStreamSimulator(ShipDataService shipDataService) {
     this.shipDataService = shipDataService;
+    this.random = shipDataService.createSimulationRandom();
+    shipDataService.setClock(simulatedTime::get);
+  }
+
+  /**
+   * Seeds the service and the simulator's own choices for the next
+   * {@link #startSimulation(int)}: every run with the same seed, settings and shard count then
+   * builds the same fleet and applies the same updates to it on every tick, down to the positions
+   * ships reach.
+   */
+  public void setSeed(long seed) {
+    shipDataService.setSeed(seed);
   }
 
   public void startSimulation(int numberOfShips) {
@@ -29,7 +59,10 @@ public class DataStreamSimulator {
 
     // Create a new scheduler for this simulation
     scheduler = Executors.newScheduledThreadPool(2);
+    simulatedTime.set(System.currentTimeMillis());
     shipDataService.initializeShips(numberOfShips);
+    random = shipDataService.createSimulationRandom();
+    shardWorkers = createShardWorkers(shipDataService.getShardCount());
     running.set(true);
 
     // Schedule the simulation task
@@ -44,6 +77,23 @@ public class DataStreamSimulator {
     System.out.println("Update interval: " + updateIntervalMs + "ms");
     System.out.println("Kinematic updates: " + kinematicUpdatePercentage + "% of ships");
     System.out.println("Identity updates: " + identityUpdatePercentage + "% of ships");
+    System.out.println("Shards: " + shipDataService.getShardCount());
+  }
+
+  private static ExecutorService[] createShardWorkers(int shardCount) {
+    if (shardCount == 1) {
+      return new ExecutorService[0]; // the scheduler thread owns the only shard
+    }
+    ExecutorService[] workers = new ExecutorService[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      String name = "shard-" + i;
+      workers[i] = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return workers;
   }
 
   public void stopSimulation() {
@@ -68,6 +118,10 @@ public class DataStreamSimulator {
       }
       scheduler = null;
     }
+    for (ExecutorService worker : shardWorkers) {
+      worker.shutdownNow();
+    }
+    shardWorkers = new ExecutorService[0];
 
     System.out.println("Simulation stopped");
   }
@@ -76,24 +130,7 @@ public class DataStreamSimulator {
     if (!running.get()) return;
 
     try {
-      int shipCount = shipDataService.getShipCount();
-      if (shipCount == 0) return;
-
-      // Update kinematic data for random ships
-      int kinematicUpdates = Math.max(1, (shipCount * kinematicUpdatePercentage) / 100);
-      for (int i = 0; i < kinematicUpdates; i++) {
-        int randomShipId = random.nextInt(shipCount) + 1;
-        shipDataService.updateKinematicData(randomShipId);
-      }
-
-      // Update identity data for random ships (less frequent)
-      if (random.nextInt(100) < 10) { // 10% chance to update identities
-        int identityUpdates = Math.max(1, (shipCount * identityUpdatePercentage) / 1000);
-        for (int i = 0; i < identityUpdates; i++) {
-          int randomShipId = random.nextInt(shipCount) + 1;
-          shipDataService.updateIdentityData(randomShipId);
-        }
-      }
+      runTick();
 
       // Print statistics every 10 seconds
       if (System.currentTimeMillis() % 10000 < updateIntervalMs) {
@@ -105,6 +142,128 @@ public class DataStreamSimulator {
     }
   }
 
+  /**
+   * Advances simulated time by the update interval and applies one tick of kinematic and
+   * identity updates to the current fleet. Membership changes run first on the calling thread;
+   * the updates are then split across the fleet's shards, each on its own worker while the
+   * simulation runs, or all on the calling thread otherwise.
+   */
+  public void runTick() {
+    simulatedTime.addAndGet(updateIntervalMs);
+    int shipCount = shipDataService.getShipCount();
+    if (shipCount == 0) return;
+    // Ids are recycled, so they stay in 1 .. bound - 1 but may have gaps after departures
+    int idRange = shipDataService.getShipIdBound() - 1;
+
+    // Ships leaving and entering the area
+    for (int i = 0; i < membershipChangesPerTick; i++) {
+      if (shipDataService.removeShip(random.nextInt(idRange) + 1)) {
+        shipDataService.addShip();
+      }
+    }
+
+    // Update kinematic data for random ships
+    int kinematicUpdates = Math.max(1, (shipCount * kinematicUpdatePercentage) / 100);
+
+    // Update identity data for random ships (less frequent)
+    int identityUpdates = 0;
+    if (random.nextInt(100) < 10) { // 10% chance to update identities
+      identityUpdates = Math.max(1, (shipCount * identityUpdatePercentage) / 1000);
+    }
+
+    int idBound = idRange + 1;
+    int shardCount = shipDataService.getShardCount();
+    long[] ownedIds = new long[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      ownedIds[i] = shipDataService.getShard(i).ownedIds(idBound);
+    }
+    int[] kinematicShares = shares(kinematicUpdates, ownedIds);
+    int[] identityShares = shares(identityUpdates, ownedIds);
+    ExecutorService[] workers = shardWorkers;
+    if (workers.length != shardCount) {
+      for (int i = 0; i < shardCount; i++) {
+        runShard(shipDataService.getShard(i), idBound, kinematicShares[i], identityShares[i]);
+      }
+      return;
+    }
+
+    Future<?>[] pending = new Future<?>[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      ShipShard shard = shipDataService.getShard(i);
+      int kinematicShare = kinematicShares[i];
+      int identityShare = identityShares[i];
+      pending[i] = workers[i].submit(
+          () -> runShard(shard, idBound, kinematicShare, identityShare));
+    }
+    // Ticks never overlap, so a shard is never updated by two ticks at once
+    try {
+      for (Future<?> shardTick : pending) {
+        shardTick.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Shard update failed", e.getCause());
+    }
+  }
+
+  private static void runShard(ShipShard shard, int idBound, int kinematicUpdates,
+      int identityUpdates) {
+    RandomGenerator shardRandom = shard.getRandom();
+    int[] shipIds = new int[Math.min(BATCH_SIZE, Math.max(kinematicUpdates, identityUpdates))];
+    for (int done = 0; done < kinematicUpdates; ) {
+      int count = fillBatch(shard, shardRandom, idBound, shipIds, kinematicUpdates - done);
+      shard.updateKinematicBatch(shipIds, count);
+      done += shipIds.length;
+    }
+    for (int done = 0; done < identityUpdates; ) {
+      int count = fillBatch(shard, shardRandom, idBound, shipIds, identityUpdates - done);
+      shard.updateIdentityBatch(shipIds, count);
+      done += shipIds.length;
+    }
+  }
+
+  /**
+   * Fills {@code shipIds} with up to {@code remaining} random ids owned by the shard.
+   */
+  private static int fillBatch(ShipShard shard, RandomGenerator random, int idBound, int[] shipIds,
+      int remaining) {
+    int wanted = Math.min(shipIds.length, remaining);
+    int count = 0;
+    for (int i = 0; i < wanted; i++) {
+      int shipId = shard.randomShipId(random, idBound);
+      if (shipId != 0) {
+        shipIds[count++] = shipId;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Splits {@code total} updates over the shards in proportion to the ids each owns, so ships are
+   * updated at the same rate on every shard and shards owning no ids get none; the shares add up
+   * to {@code total} exactly.
+   */
+  static int[] shares(int total, long[] ownedIds) {
+    long all = 0;
+    for (long owned : ownedIds) {
+      all += owned;
+    }
+    int[] shares = new int[ownedIds.length];
+    if (all == 0) {
+      return shares;
+    }
+    long ownedBefore = 0;
+    long assigned = 0;
+    for (int i = 0; i < ownedIds.length; i++) {
+      ownedBefore += ownedIds[i];
+      long upTo = total * ownedBefore / all;
+      shares[i] = (int) (upTo - assigned);
+      assigned = upTo;
+    }
+    return shares;
+  }
+
   private void printStatistics() {
     System.out.printf("[Stats] Active ships: %d, Total updates: %d%n",
         shipDataService.getShipCount(),
@@ -120,10 +279,24 @@ public class DataStreamSimulator {
     this.identityUpdatePercentage = Math.max(0, Math.min(100, percentage));
   }
 
+  /**
+   * Number of ships replaced by new arrivals on every tick.
+   */
+  public void setMembershipChangesPerTick(int changes) {
+    this.membershipChangesPerTick = Math.max(0, changes);
+  }
+
   public void setUpdateIntervalMs(int intervalMs) {
     this.updateIntervalMs = Math.max(100, intervalMs);
   }
 
+  /**
+   * Current simulated time in epoch milliseconds, which the service's fixes are stamped with.
+   */
+  public long getSimulatedTime() {
+    return simulatedTime.get();
+  }
+
   public boolean isRunning() {
     return running.get();
   }
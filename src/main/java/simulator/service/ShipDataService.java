@@ -1,80 +1,703 @@
 package simulator.service;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicInteger;
-import simulator.data.IdentityData;
-import simulator.data.KinematicData;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import simulator.data.IdentityDictionary;
 import simulator.data.ShipData;
+import simulator.data.Track;
 import simulator.generator.IdentityDataGenerator;
 import simulator.generator.KinematicDataGenerator;
+import simulator.generator.MotionModel;
+import simulator.generator.RandomStreams;
+import simulator.store.ColumnarFleetStore;
+import simulator.store.DirtyShipSet;
+import simulator.store.FleetSnapshot;
+import simulator.store.FleetStore;
+import simulator.store.HeapFleetStore;
+import simulator.store.KinematicFixListener;
+import simulator.store.MemoryFootprint;
+import simulator.store.OffHeapFleetStore;
+import simulator.store.StoreMode;
+import simulator.store.TimeSeriesStore;
+import simulator.store.TrackArchive;
+import simulator.store.TrackHistory;
 
-public class ShipDataService {
-  private  Map<Integer, ShipData> ships;
-  private  List<ShipData> shipList;
+public final class ShipDataService {
+  // Random streams derived from the run seed, one per consumer
+  private static final long INITIALIZATION_STREAM = 0;
+  private static final long MEMBERSHIP_STREAM = 1;
+  private static final long SHARD_STREAMS = 2;
+  private static final long SHARD_PICK_STREAMS = 3;
+  private static final long SIMULATION_STREAM = 4;
+  private static final long IDENTITY_STREAM = 5;
+
+  private static final String DEFAULT_STORE_FILE = "ship-fleet.dat";
+
+  private volatile FleetStore store;
+  private volatile StoreMode storeMode;
+  private volatile Path storeFile;
+  private volatile boolean parallelInitialization = true;
+  private volatile int trackHistoryDepth;
+  private volatile double trackSimplificationTolerance;
+  private volatile TrackHistory trackHistory;
+  private volatile boolean trackArchiveEnabled;
+  private volatile TrackArchive trackArchive;
+  private volatile boolean timeSeriesEnabled;
+  private volatile boolean deadReckoningEnabled;
+  private volatile LongSupplier clock = System::currentTimeMillis;
+  private volatile TimeSeriesStore timeSeries;
   private  AtomicInteger updateCount;
+  private volatile int shardCount = 1;
+  private volatile ShipShard[] shards;
+  private final DirtyShipSet dirtyShips = new DirtyShipSet();
+  private final KinematicFixListener markDirty =
+      (shipId, version, timestamp, speed, course, latitude, longitude) -> dirtyShips.mark(shipId);
+
+  private volatile KinematicDataGenerator kinematicGenerator;
 
-  private KinematicDataGenerator kinematicGenerator;
+  private volatile IdentityDataGenerator identityGenerator;
 
-  private IdentityDataGenerator identityGenerator;
+  private volatile long seed;
+  // Arrivals are serialized by the store, so they can share one split of each generator
+  private volatile KinematicDataGenerator membershipKinematicGenerator;
+  private volatile IdentityDataGenerator membershipIdentityGenerator;
 
   public ShipDataService(KinematicDataGenerator kinematicGenerator, IdentityDataGenerator identityGenerator) {
+    this(kinematicGenerator, identityGenerator, StoreMode.OBJECT);
+  }
+
+  public ShipDataService(KinematicDataGenerator kinematicGenerator, IdentityDataGenerator identityGenerator,
+      StoreMode storeMode) {
     this.kinematicGenerator = kinematicGenerator;
     this.identityGenerator = identityGenerator;
-    // ... initialize other fields
-    ships = new ConcurrentHashMap<>();
-    shipList = new CopyOnWriteArrayList<>();
+    this.seed = kinematicGenerator.getSeed();
+    this.storeMode = storeMode;
+    store = createStore(storeMode);
     updateCount = new AtomicInteger(0);
+    shards = createShards(shardCount);
+    createMembershipGenerators();
+  }
+
+  private FleetStore createStore(StoreMode mode) {
+    FleetStore created = newStore(mode);
+    created.setClock(clock);
+    return created;
+  }
+
+  private FleetStore newStore(StoreMode mode) {
+    switch (mode) {
+      case COLUMNAR:
+        return new ColumnarFleetStore();
+      case COMPACT:
+        return new ColumnarFleetStore(true);
+      case OFF_HEAP:
+        return new OffHeapFleetStore();
+      case MAPPED_FILE:
+        return new OffHeapFleetStore(resolveStoreFile());
+      case OBJECT:
+      default:
+        return new HeapFleetStore();
+    }
   }
 
   public void initializeShips(int numberOfShips) {
-    ships.clear();
-    shipList.clear();
+    FleetStore next = createStore(storeMode);
+    next.initialize(numberOfShips, kinematicGenerator.split(INITIALIZATION_STREAM),
+        identityGenerator.split(INITIALIZATION_STREAM), parallelInitialization);
     updateCount.set(0);
+    shards = createShards(shardCount);
+    createMembershipGenerators();
+    trackHistory = trackHistoryDepth > 0 ? createTrackHistory() : null;
+    trackArchive = trackArchiveEnabled ? new TrackArchive() : null;
+    timeSeries = timeSeriesEnabled ? new TimeSeriesStore() : null;
+    store = next;
+    dirtyShips.clear();
+  }
 
-    for (int i = 1; i <= numberOfShips; i++) {
-      KinematicData kinematic = kinematicGenerator.generateInitialData();
-      IdentityData identity = identityGenerator.generateIdentityData(i);
-      ShipData ship = new ShipData(i, kinematic, identity);
-
-      ships.put(i, ship);
-      shipList.add(ship);
+  private ShipShard[] createShards(int count) {
+    KinematicDataGenerator kinematicStreams = kinematicGenerator.split(SHARD_STREAMS);
+    IdentityDataGenerator identityStreams = identityGenerator.split(SHARD_STREAMS);
+    long pickSeed = RandomStreams.derive(seed, SHARD_PICK_STREAMS);
+    ShipShard[] created = new ShipShard[count];
+    for (int i = 0; i < count; i++) {
+      created[i] = new ShipShard(this, i, count, kinematicStreams.split(i),
+          identityStreams.split(i), new SplittableRandom(RandomStreams.derive(pickSeed, i)));
     }
+    return created;
+  }
+
+  private void createMembershipGenerators() {
+    membershipKinematicGenerator = kinematicGenerator.split(MEMBERSHIP_STREAM);
+    membershipIdentityGenerator = identityGenerator.split(MEMBERSHIP_STREAM);
   }
 
+  /**
+   * Updates a ship from any thread; owners of a {@link ShipShard} should update through it.
+   */
   public void updateKinematicData(int shipId) {
-    ShipData ship = ships.get(shipId);
-    if (ship != null) {
-      KinematicData newKinematic = kinematicGenerator.generateUpdate(ship.getKinematicData());
-      ship.updateKinematicData(newKinematic);
+    if (applyKinematicUpdate(shipId, kinematicGenerator)) {
       updateCount.incrementAndGet();
     }
   }
 
+  boolean applyKinematicUpdate(int shipId, KinematicDataGenerator generator) {
+    FleetStore current = store;
+    if (!current.updateKinematicData(shipId, generator, trackRecorder(current))) {
+      return false;
+    }
+    dirtyShips.mark(shipId);
+    return true;
+  }
+
+  /**
+   * Records every state an update writes, with the version and fix time it was written with, in
+   * the track stores of the current generation.
+   */
+  private KinematicFixListener trackRecorder(FleetStore current) {
+    TrackHistory history = trackHistory;
+    TrackArchive archive = trackArchive;
+    TimeSeriesStore series = timeSeries;
+    if (history == null && archive == null && series == null) {
+      return KinematicFixListener.NONE;
+    }
+    return (shipId, version, timestamp, speed, course, latitude, longitude) -> {
+      if (history != null) {
+        history.record(shipId, version, timestamp, speed, course, latitude, longitude);
+      }
+      if (archive != null) {
+        archive.append(shipId, version, timestamp, speed, course, latitude, longitude);
+      }
+      if (series != null) {
+        if (series.getShipType(shipId) == TimeSeriesStore.ANY_TYPE) {
+          // First point since the ship appeared; later type changes come from identity updates
+          series.setShipType(shipId, shipTypeOf(current, shipId));
+        }
+        series.append(shipId, timestamp, speed, course, latitude, longitude);
+      }
+    };
+  }
+
+  private static int shipTypeOf(FleetStore current, int shipId) {
+    ShipData ship = current.getShip(shipId);
+    return ship == null ? TimeSeriesStore.ANY_TYPE : ship.getIdentityData().getShipTypeCode();
+  }
+
+  /**
+   * Updates the kinematic state of {@code shipIds[0 .. count - 1]} from any thread, with one
+   * fleet epoch step and one counter update for the whole batch; returns how many existed.
+   */
+  public int updateKinematicBatch(int[] shipIds, int count) {
+    int updated = applyKinematicBatch(shipIds, count, kinematicGenerator);
+    updateCount.addAndGet(updated);
+    return updated;
+  }
+
+  int applyKinematicBatch(int[] shipIds, int count, KinematicDataGenerator generator) {
+    FleetStore current = store;
+    KinematicFixListener recorder = trackRecorder(current);
+    if (recorder == KinematicFixListener.NONE) {
+      return current.updateKinematicBatch(shipIds, count, generator, markDirty);
+    }
+    return current.updateKinematicBatch(shipIds, count, generator,
+        (shipId, version, timestamp, speed, course, latitude, longitude) -> {
+          dirtyShips.mark(shipId);
+          recorder.fixed(shipId, version, timestamp, speed, course, latitude, longitude);
+        });
+  }
+
   public void updateIdentityData(int shipId) {
-    ShipData ship = ships.get(shipId);
-    if (ship != null) {
-      IdentityData newIdentity = identityGenerator.generateIdentityData(shipId);
-      ship.updateIdentityData(newIdentity);
+    if (applyIdentityUpdate(shipId, identityGenerator)) {
       updateCount.incrementAndGet();
     }
   }
 
+  /**
+   * Identity counterpart of {@link #updateKinematicBatch(int[], int)}.
+   */
+  public int updateIdentityBatch(int[] shipIds, int count) {
+    int updated = applyIdentityBatch(shipIds, count, identityGenerator);
+    updateCount.addAndGet(updated);
+    return updated;
+  }
+
+  int applyIdentityBatch(int[] shipIds, int count, IdentityDataGenerator generator) {
+    FleetStore current = store;
+    TimeSeriesStore series = timeSeries;
+    if (series == null) {
+      return current.updateIdentityBatch(shipIds, count, generator, dirtyShips::mark);
+    }
+    return current.updateIdentityBatch(shipIds, count, generator, shipId -> {
+      dirtyShips.mark(shipId);
+      series.setShipType(shipId, shipTypeOf(current, shipId));
+    });
+  }
+
+  boolean applyIdentityUpdate(int shipId, IdentityDataGenerator generator) {
+    FleetStore current = store;
+    if (!current.updateIdentityData(shipId, generator)) {
+      return false;
+    }
+    dirtyShips.mark(shipId);
+    TimeSeriesStore series = timeSeries;
+    if (series != null) {
+      series.setShipType(shipId, shipTypeOf(current, shipId));
+    }
+    return true;
+  }
+
+  /**
+   * Adds a newly generated ship to the running fleet and returns its id, which may be one
+   * released by an earlier {@link #removeShip(int)}.
+   */
+  public int addShip() {
+    int shipId = store.addShip(membershipKinematicGenerator, membershipIdentityGenerator);
+    dirtyShips.mark(shipId);
+    return shipId;
+  }
+
+  /**
+   * Removes a ship from the running fleet; its slot and id are reused by later arrivals.
+   *
+   * @return false if the ship does not exist
+   */
+  public boolean removeShip(int shipId) {
+    if (store.removeShip(shipId)) {
+      TrackHistory history = trackHistory;
+      if (history != null) {
+        history.clear(shipId);
+      }
+      TrackArchive archive = trackArchive;
+      if (archive != null) {
+        archive.remove(shipId);
+      }
+      TimeSeriesStore series = timeSeries;
+      if (series != null) {
+        // Recorded points stay; a ship reusing the id gets its own type
+        series.setShipType(shipId, TimeSeriesStore.ANY_TYPE);
+      }
+      // Reported as dirty so downstream stages see the departure; getShip then returns null
+      dirtyShips.mark(shipId);
+      return true;
+    }
+    return false;
+  }
+
   public ShipData getShip(int shipId) {
-    return ships.get(shipId);
+    return reckon(store.getShip(shipId));
+  }
+
+  /**
+   * Allocation-free, torn-read-free copy of a ship's kinematic tuple; see
+   * {@link FleetStore#readKinematicData(int, double[])}. Dead-reckoned to now when
+   * {@link #setDeadReckoningEnabled(boolean) enabled}.
+   */
+  public boolean readKinematicData(int shipId, double[] state) {
+    if (!deadReckoningEnabled) {
+      return store.readKinematicData(shipId, state);
+    }
+    long fixTime = store.readKinematicFix(shipId, state);
+    if (fixTime == FleetStore.ABSENT) {
+      return false;
+    }
+    kinematicGenerator.project(state,
+        KinematicDataGenerator.elapsedSeconds(fixTime, clock.getAsLong()));
+    return true;
+  }
+
+  /**
+   * The ship as read, or with its position dead-reckoned to now when enabled.
+   */
+  private ShipData reckon(ShipData ship) {
+    if (ship == null || !deadReckoningEnabled) {
+      return ship;
+    }
+    KinematicDataGenerator generator = kinematicGenerator;
+    return ship.project((fix, elapsed) -> generator.project(fix, elapsed / 1000.0),
+        clock.getAsLong());
+  }
+
+  /**
+   * The ship's last {@code points} recorded positions, oldest first; empty when track history is
+   * disabled.
+   */
+  public Track getRecentTrack(int shipId, int points) {
+    TrackHistory history = trackHistory;
+    return history == null ? Track.EMPTY : history.lastPoints(shipId, points);
+  }
+
+  /**
+   * The ship's positions recorded within the last {@code window}, oldest first; empty when track
+   * history is disabled.
+   */
+  public Track getRecentTrack(int shipId, Duration window) {
+    TrackHistory history = trackHistory;
+    return history == null ? Track.EMPTY
+        : history.since(shipId, clock.getAsLong() - window.toMillis());
+  }
+
+  /**
+   * Memory allocated for track history so far; see {@link TrackHistory#bytesFor(int, int)} for
+   * the budget of a given fleet.
+   */
+  public long getTrackHistoryBytes() {
+    TrackHistory history = trackHistory;
+    return history == null ? 0 : history.getAllocatedBytes();
+  }
+
+  /**
+   * The ship's archived positions with {@code from <= timestamp <= to}, oldest first; empty when
+   * the track archive is disabled.
+   */
+  public Track getArchivedTrack(int shipId, long from, long to) {
+    TrackArchive archive = trackArchive;
+    return archive == null ? Track.EMPTY : archive.read(shipId, from, to);
+  }
+
+  /**
+   * Average encoded size of an archived point, 0 when the archive is disabled or empty.
+   */
+  public double getTrackArchiveBytesPerPoint() {
+    TrackArchive archive = trackArchive;
+    return archive == null ? 0 : archive.getBytesPerPoint();
   }
 
   public List<ShipData> getAllShips() {
-    return shipList;
+    List<ShipData> ships = store.getAllShips();
+    return deadReckoningEnabled ? new ReckonedShipList(ships, this) : ships;
+  }
+
+  /**
+   * Sequential stream over the fleet in slot order, materializing ships as it goes; as weakly
+   * consistent as {@link #getAllShips()}.
+   */
+  public Stream<ShipData> stream() {
+    Stream<ShipData> ships = StreamSupport.stream(store.spliterator(), false);
+    return deadReckoningEnabled ? ships.map(this::reckon) : ships;
+  }
+
+  /**
+   * Parallel counterpart of {@link #stream()}, split by store page across the common fork-join
+   * pool.
+   */
+  public Stream<ShipData> parallelStream() {
+    Stream<ShipData> ships = StreamSupport.stream(store.spliterator(), true);
+    return deadReckoningEnabled ? ships.map(this::reckon) : ships;
   }
 
   public int getShipCount() {
-    return ships.size();
+    return store.size();
+  }
+
+  /**
+   * Exclusive upper bound of the ship ids in use, for picking ids at random.
+   */
+  public int getShipIdBound() {
+    return store.getShipIdBound();
   }
 
-  public int getTotalUpdates() {
-    return updateCount.get();
+  public long getTotalUpdates() {
+    long total = updateCount.get();
+    for (ShipShard shard : shards) {
+      total += shard.getUpdateCount();
+    }
+    return total;
+  }
+
+  /**
+   * Seeds the generators so that the next {@link #initializeShips(int)} and everything after it
+   * is reproducible: the fleet, each shard's updates and the arrivals depend only on the seed,
+   * however the work is spread over threads. Updates through the service's own methods from
+   * several threads at once draw from per-thread streams and are not reproducible.
+   */
+  public void setSeed(long seed) {
+    this.seed = seed;
+    KinematicDataGenerator seeded = new KinematicDataGenerator(seed);
+    seeded.setMotionModel(kinematicGenerator.getMotionModel());
+    kinematicGenerator = seeded;
+    identityGenerator = new IdentityDataGenerator(RandomStreams.derive(seed, IDENTITY_STREAM));
+  }
+
+  /**
+   * Motion model ships follow; shards pick it up at the next {@link #initializeShips(int)}.
+   */
+  public void setMotionModel(MotionModel motionModel) {
+    kinematicGenerator.setMotionModel(motionModel);
+  }
+
+  public MotionModel getMotionModel() {
+    return kinematicGenerator.getMotionModel();
+  }
+
+  /**
+   * Seed of the run; unless set, that of the kinematic generator the service was built with.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Random stream of the run seed reserved for the code driving the service, such as
+   * {@link DataStreamSimulator}'s choice of arrivals and departures.
+   */
+  public RandomGenerator createSimulationRandom() {
+    return new SplittableRandom(RandomStreams.derive(seed, SIMULATION_STREAM));
+  }
+
+  /**
+   * Number of shards the next {@link #initializeShips(int)} partitions the fleet into, each to be
+   * driven by its own writer thread; see {@link ShipShard}.
+   */
+  public void setShardCount(int shardCount) {
+    this.shardCount = Math.max(1, shardCount);
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  public ShipShard getShard(int index) {
+    return shards[index];
+  }
+
+  /**
+   * The shard owning {@code shipId} in the current fleet.
+   */
+  public ShipShard getShardOf(int shipId) {
+    ShipShard[] current = shards;
+    return current[ShipShard.shardOf(shipId, current.length)];
+  }
+
+  /**
+   * Estimates the memory held by the fleet and everything kept alongside it: ships and index,
+   * identity dictionaries, change tracking, track history and archive. Use
+   * {@link MemoryFootprint#estimateTotalBytes(int)} to size a deployment for another fleet size.
+   */
+  public MemoryFootprint getMemoryFootprint() {
+    MemoryFootprint footprint = store.getMemoryFootprint();
+    footprint.add(MemoryFootprint.IDENTITY_STRINGS,
+        MemoryFootprint.tableBytes(IdentityDictionary.SHIP_NAMES)
+            + MemoryFootprint.tableBytes(IdentityDictionary.SHIP_TYPES)
+            + MemoryFootprint.tableBytes(IdentityDictionary.IDENTIFIERS));
+    footprint.add(MemoryFootprint.CHANGE_TRACKING, dirtyShips.getMemoryBytes());
+    TrackHistory history = trackHistory;
+    if (history != null) {
+      footprint.add(MemoryFootprint.TRACK_HISTORY, history.getAllocatedBytes());
+    }
+    TrackArchive archive = trackArchive;
+    if (archive != null) {
+      footprint.add(MemoryFootprint.TRACK_ARCHIVE, archive.getMemoryBytes());
+    }
+    TimeSeriesStore series = timeSeries;
+    if (series != null) {
+      footprint.add(MemoryFootprint.TIME_SERIES, series.getMemoryBytes());
+    }
+    return footprint;
+  }
+
+  /**
+   * Current fleet epoch; every update advances it and stamps the changed ship with the new value.
+   */
+  public long getFleetEpoch() {
+    return store.getFleetEpoch();
+  }
+
+  /**
+   * Delivers every ship whose kinematic or identity version exceeds {@code watermark} and returns
+   * the watermark to pass on the next call. Ships updated while the scan runs may be delivered
+   * again next time, but no change is ever missed.
+   */
+  public long forEachChangedSince(long watermark, Consumer<ShipData> action) {
+    return store.forEachChangedSince(watermark, action);
+  }
+
+  /**
+   * Consistent point-in-time image of the whole fleet for exporters, checkpoints and the GUI,
+   * taken while the simulation keeps running.
+   */
+  public FleetSnapshot snapshot() {
+    return store.snapshot();
+  }
+
+  /**
+   * Hands every ship id changed since the previous drain to {@code action}, once per id in
+   * ascending order, and starts a new dirty epoch. Intended for a single downstream stage per
+   * service (e.g. a publisher running once per tick); returns the number of ids reported.
+   */
+  public int drainDirtyShips(IntConsumer action) {
+    return dirtyShips.drain(action);
+  }
+
+  /**
+   * Approximate number of ships changed since the last drain.
+   */
+  public int getDirtyShipCount() {
+    return dirtyShips.count();
+  }
+
+  /**
+   * Selects the store used by the next {@link #initializeShips(int)} call.
+   */
+  public void setStoreMode(StoreMode storeMode) {
+    this.storeMode = storeMode;
+  }
+
+  public StoreMode getStoreMode() {
+    return storeMode;
+  }
+
+  /**
+   * Number of positions kept per ship from the next {@link #initializeShips(int)} on, 0 to
+   * disable track history; see {@link TrackHistory#depthFor(Duration, Duration)}.
+   */
+  public void setTrackHistoryDepth(int depth) {
+    this.trackHistoryDepth = Math.max(0, depth);
+  }
+
+  public int getTrackHistoryDepth() {
+    return trackHistoryDepth;
+  }
+
+  /**
+   * Tolerance in meters for simplifying the track history from the next
+   * {@link #initializeShips(int)} on, 0 to keep every position. Dropped positions stay within the
+   * tolerance of the recorded track; a depth of at least 2 is required.
+   */
+  public void setTrackSimplificationTolerance(double meters) {
+    this.trackSimplificationTolerance = Math.max(0, meters);
+  }
+
+  public double getTrackSimplificationTolerance() {
+    return trackSimplificationTolerance;
+  }
+
+  private TrackHistory createTrackHistory() {
+    int depth = trackHistoryDepth;
+    return depth < 2 ? new TrackHistory(depth)
+        : new TrackHistory(depth, trackSimplificationTolerance);
+  }
+
+  /**
+   * Whether the next {@link #initializeShips(int)} starts a compressed, unbounded
+   * {@link TrackArchive} of every kinematic update.
+   */
+  public void setTrackArchiveEnabled(boolean trackArchiveEnabled) {
+    this.trackArchiveEnabled = trackArchiveEnabled;
+  }
+
+  /**
+   * Whether the next {@link #initializeShips(int)} starts a {@link TimeSeriesStore} of every
+   * kinematic update for analytical queries.
+   */
+  public void setTimeSeriesEnabled(boolean timeSeriesEnabled) {
+    this.timeSeriesEnabled = timeSeriesEnabled;
+  }
+
+  /**
+   * Whether reads evaluate positions lazily: {@link #getShip(int)},
+   * {@link #readKinematicData(int, double[])}, {@link #getAllShips()} and the streams return
+   * each ship's position dead-reckoned from its last fix to the moment it is read, so ships
+   * that have not reported since keep moving without any per-tick work. The stored fix is not
+   * changed and {@link ShipData#getLastUpdateTimestamp()} stays its time. Snapshots, the change
+   * feed and track history keep the fixes as reported.
+   */
+  public void setDeadReckoningEnabled(boolean deadReckoningEnabled) {
+    this.deadReckoningEnabled = deadReckoningEnabled;
+  }
+
+  public boolean isDeadReckoningEnabled() {
+    return deadReckoningEnabled;
+  }
+
+  /**
+   * Clock in epoch milliseconds that kinematic fixes and track points are stamped with and that
+   * ships move against: an update advances a ship for the time since its last fix, and dead
+   * reckoning for the time from the fix to the read. The wall clock unless set; a simulated
+   * clock makes positions independent of when updates happen to run, see
+   * {@link DataStreamSimulator}. Applies to the current fleet at once.
+   */
+  public void setClock(LongSupplier clock) {
+    this.clock = clock;
+    store.setClock(clock);
+  }
+
+  public LongSupplier getClock() {
+    return clock;
+  }
+
+  /**
+   * The time series of the current fleet, or null when disabled.
+   */
+  public TimeSeriesStore getTimeSeries() {
+    return timeSeries;
+  }
+
+  /**
+   * Speed statistics of the ships of type {@code shipType} with updates between {@code from} and
+   * {@code to}, e.g. the average speed of all tankers in an hour; empty when the time series is
+   * disabled or the type is unknown.
+   */
+  public TimeSeriesStore.Summary summarizeSpeed(String shipType, long from, long to) {
+    TimeSeriesStore series = timeSeries;
+    int shipTypeCode = IdentityDictionary.SHIP_TYPES.codeOf(shipType);
+    if (series == null || shipTypeCode < 0) {
+      return new TimeSeriesStore.Summary();
+    }
+    return series.summarizeSpeed(from, to, shipTypeCode);
+  }
+
+  /**
+   * Whether {@link #initializeShips(int)} may build large fleets in parallel chunks.
+   */
+  public void setParallelInitialization(boolean parallelInitialization) {
+    this.parallelInitialization = parallelInitialization;
+  }
+
+  /**
+   * Sets the path that names the files backing {@link StoreMode#MAPPED_FILE}; each fleet
+   * generation maps a file of its own next to it, in the temporary directory when unset.
+   */
+  public void setStoreFile(Path storeFile) {
+    this.storeFile = storeFile;
+  }
+
+  private Path resolveStoreFile() {
+    Path configured = storeFile;
+    return configured != null ? configured
+        : Path.of(System.getProperty("java.io.tmpdir"), DEFAULT_STORE_FILE);
+  }
+
+  /**
+   * View of a store's ship list that dead-reckons each ship as it is read.
+   */
+  private static final class ReckonedShipList extends AbstractList<ShipData>
+      implements RandomAccess {
+    private final List<ShipData> ships;
+    private final ShipDataService service;
+
+    ReckonedShipList(List<ShipData> ships, ShipDataService service) {
+      this.ships = ships;
+      this.service = service;
+    }
+
+    @Override
+    public ShipData get(int index) {
+      return service.reckon(ships.get(index));
+    }
+
+    @Override
+    public int size() {
+      return ships.size();
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package simulator.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.random.RandomGenerator;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * One partition of a {@link ShipDataService} fleet, owned by a single writer thread.
+ *
+ * <p>Ship ids are split into blocks of {@value #BLOCK_SIZE} consecutive ids dealt round-robin to
+ * the shards, so a shard owns whole cache lines of the slot-ordered store columns and of the
+ * dirty-ship bitset, while ids handed out later still spread evenly. Updates through a shard are
+ * counted in a padded counter only its owner writes, so shards never contend with each other on
+ * service state. Each shard also draws from its own random streams, derived from the service's
+ * seed, so a seeded run updates the same ships in the same way however many threads drive the
+ * shards. All methods except the getters must be called from the owning thread.
+ */
+public final class ShipShard {
+  public static final int BLOCK_SHIFT = 10;
+  public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+  private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(long[].class);
+  // Counters sit in the middle of their own array, a cache line away from any neighbor
+  private static final int KINEMATIC = 8;
+  private static final int IDENTITY = 9;
+  private static final int COUNTER_ARRAY_SIZE = 18;
+
+  private final ShipDataService service;
+  private final int index;
+  private final int shardCount;
+  private final long[] counters = new long[COUNTER_ARRAY_SIZE];
+  private final KinematicDataGenerator kinematicGenerator;
+  private final IdentityDataGenerator identityGenerator;
+  private final RandomGenerator random;
+
+  ShipShard(ShipDataService service, int index, int shardCount,
+      KinematicDataGenerator kinematicGenerator, IdentityDataGenerator identityGenerator,
+      RandomGenerator random) {
+    this.service = service;
+    this.index = index;
+    this.shardCount = shardCount;
+    this.kinematicGenerator = kinematicGenerator;
+    this.identityGenerator = identityGenerator;
+    this.random = random;
+  }
+
+  /**
+   * Index of the shard owning {@code shipId} among {@code shardCount} shards.
+   */
+  public static int shardOf(int shipId, int shardCount) {
+    return (shipId >>> BLOCK_SHIFT) % shardCount;
+  }
+
+  public int getIndex() { return index; }
+  public int getShardCount() { return shardCount; }
+
+  /**
+   * The shard's own random stream, for its owner to pick ships with.
+   */
+  public RandomGenerator getRandom() { return random; }
+
+  public boolean owns(int shipId) {
+    return shipId >= 0 && shardOf(shipId, shardCount) == index;
+  }
+
+  /**
+   * Number of ids in {@code 1 .. bound - 1} owned by this shard; 0 for a shard whose blocks all
+   * lie beyond the bound.
+   */
+  public long ownedIds(int bound) {
+    int fullBlocks = bound >>> BLOCK_SHIFT;
+    int partial = fullBlocks % shardCount == index ? bound & (BLOCK_SIZE - 1) : 0;
+    // Id 0 is never used; it is the first id of shard 0
+    int skipped = index == 0 ? 1 : 0;
+    return Math.max(0, (ownedFullBlocks(fullBlocks) << BLOCK_SHIFT) + partial - skipped);
+  }
+
+  private long ownedFullBlocks(int fullBlocks) {
+    return Math.max(0, (fullBlocks - index + shardCount - 1) / shardCount);
+  }
+
+  /**
+   * Uniformly random id owned by this shard in {@code 1 .. bound - 1}, or 0 if it owns none.
+   */
+  public int randomShipId(RandomGenerator random, int bound) {
+    long owned = ownedIds(bound);
+    if (owned == 0) {
+      return 0;
+    }
+    int fullBlocks = bound >>> BLOCK_SHIFT;
+    long ownedFull = ownedFullBlocks(fullBlocks);
+    long pick = (index == 0 ? 1 : 0) + (long) (random.nextDouble() * owned);
+    if (pick < ownedFull << BLOCK_SHIFT) {
+      long block = (pick >>> BLOCK_SHIFT) * shardCount + index;
+      return (int) ((block << BLOCK_SHIFT) + (pick & (BLOCK_SIZE - 1)));
+    }
+    return (fullBlocks << BLOCK_SHIFT) + (int) (pick - (ownedFull << BLOCK_SHIFT));
+  }
+
+  public void updateKinematicData(int shipId) {
+    checkOwned(shipId);
+    if (service.applyKinematicUpdate(shipId, kinematicGenerator)) {
+      increment(KINEMATIC);
+    }
+  }
+
+  public void updateIdentityData(int shipId) {
+    checkOwned(shipId);
+    if (service.applyIdentityUpdate(shipId, identityGenerator)) {
+      increment(IDENTITY);
+    }
+  }
+
+  /**
+   * Updates the kinematic state of {@code shipIds[0 .. count - 1]}, which must all be owned by
+   * this shard, as one batch; returns how many existed.
+   */
+  public int updateKinematicBatch(int[] shipIds, int count) {
+    checkOwned(shipIds, count);
+    int updated = service.applyKinematicBatch(shipIds, count, kinematicGenerator);
+    add(KINEMATIC, updated);
+    return updated;
+  }
+
+  public int updateIdentityBatch(int[] shipIds, int count) {
+    checkOwned(shipIds, count);
+    int updated = service.applyIdentityBatch(shipIds, count, identityGenerator);
+    add(IDENTITY, updated);
+    return updated;
+  }
+
+  public long getKinematicUpdates() { return (long) COUNTERS.getOpaque(counters, KINEMATIC); }
+  public long getIdentityUpdates() { return (long) COUNTERS.getOpaque(counters, IDENTITY); }
+
+  public long getUpdateCount() {
+    return getKinematicUpdates() + getIdentityUpdates();
+  }
+
+  private void increment(int counter) {
+    add(counter, 1);
+  }
+
+  private void add(int counter, long delta) {
+    // Single writer: a plain read of our own last write, published without a locked instruction
+    COUNTERS.setOpaque(counters, counter, counters[counter] + delta);
+  }
+
+  private void checkOwned(int[] shipIds, int count) {
+    for (int i = 0; i < count; i++) {
+      checkOwned(shipIds[i]);
+    }
+  }
+
+  private void checkOwned(int shipId) {
+    if (!owns(shipId)) {
+      throw new IllegalArgumentException("Ship " + shipId + " is not owned by shard " + index);
+    }
+  }
+}
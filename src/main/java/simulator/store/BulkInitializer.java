@@ -0,0 +1,28 @@
+package simulator.store;
+
+import java.util.stream.IntStream;
+
+/**
+ * Splits a fleet build into fixed-size slot ranges and fills them sequentially or in parallel on
+ * the common fork-join pool. The ranges are the same either way, so a filler that derives its
+ * random stream from the chunk number builds the same fleet in both modes.
+ */
+final class BulkInitializer {
+  static final int CHUNK_SIZE = 1 << 16;
+
+  interface ChunkFiller {
+    void fill(int chunk, int fromSlot, int toSlot);
+  }
+
+  private BulkInitializer() {
+  }
+
+  static void fill(int count, boolean parallel, ChunkFiller filler) {
+    int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    IntStream range = IntStream.range(0, chunks);
+    (parallel ? range.parallel() : range).forEach(chunk -> {
+      int from = chunk * CHUNK_SIZE;
+      filler.fill(chunk, from, Math.min(count, from + CHUNK_SIZE));
+    });
+  }
+}
@@ -0,0 +1,405 @@
+package simulator.store;
+
+import java.util.Arrays;
+import simulator.data.CompactKinematics;
+import simulator.data.IdentityData;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * Structure-of-arrays store: speed, course, latitude and longitude live in parallel primitive
+ * columns indexed by slot, resolved from the ship id through a {@link ShipIndex}. {@link ShipData}
+ * and {@link KinematicData} are only materialized when a caller asks for them. Columns are split
+ * into pages so the fleet can grow without copying them. In compact mode the kinematic columns
+ * hold the fixed-point form of {@link CompactKinematics}, 12 instead of 32 bytes per ship.
+ *
+ * <p>Each slot is guarded by a sequence counter: writers make it odd while they modify the
+ * columns and even again afterwards, readers retry until they observe the same even value before
+ * and after reading, so every materialized tuple is consistent.
+ *
+ * <p>Kinematic batches are gathered into contiguous arrays, advanced together with
+ * {@link KinematicDataGenerator#advanceBatch} and written back. A slot whose counter moved between
+ * the gather and the write back, because another writer or an earlier entry of the same batch
+ * updated it, is redone on its own with the slot locked.
+ */
+public class ColumnarFleetStore extends SlotFleetStore {
+  private static final ThreadLocal<double[]> SCRATCH =
+      ThreadLocal.withInitial(() -> new double[KinematicDataGenerator.STATE_SIZE]);
+  private static final ThreadLocal<BatchScratch> BATCH_SCRATCH =
+      ThreadLocal.withInitial(BatchScratch::new);
+
+  private final boolean compact;
+
+  public ColumnarFleetStore() {
+    this(false);
+  }
+
+  /**
+   * @param compact keep kinematic state in the 12-byte fixed-point form of
+   *     {@link CompactKinematics} instead of four doubles, within its documented precision
+   */
+  public ColumnarFleetStore(boolean compact) {
+    super(new Columns(0, compact));
+    this.compact = compact;
+  }
+
+  @Override
+  SlotFleet createFleet(int numberOfShips) {
+    return new Columns(numberOfShips, compact);
+  }
+
+  private static final class Columns extends SlotFleet {
+    private final boolean compact;
+    private volatile Page[] pages;
+
+    Columns(int numberOfShips, boolean compact) {
+      super(numberOfShips);
+      this.compact = compact;
+      Page[] initial = new Page[pageCount(numberOfShips)];
+      for (int page = 0; page < initial.length; page++) {
+        initial[page] = new Page(compact);
+      }
+      this.pages = initial;
+    }
+
+    private Page page(int slot) {
+      return pages[slot >>> PAGE_SHIFT];
+    }
+
+    @Override
+    void ensurePage(int slot) {
+      int page = slot >>> PAGE_SHIFT;
+      Page[] current = pages;
+      if (page < current.length) {
+        return;
+      }
+      Page[] grown = Arrays.copyOf(current, page + 1);
+      grown[page] = new Page(compact);
+      pages = grown;
+    }
+
+    @Override
+    void fill(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      page(slot).write(slot & PAGE_MASK, shipId, kinematic, identity, timestamp, version);
+    }
+
+    @Override
+    void insert(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long seq = p.sequence.beginWrite(i);
+      try {
+        p.write(i, shipId, kinematic, identity, timestamp, version);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+    }
+
+    @Override
+    void clear(int slot) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long seq = p.sequence.beginWrite(i);
+      p.shipId[i] = FREE;
+      p.sequence.endWrite(i, seq);
+    }
+
+    @Override
+    int shipIdAt(int slot) {
+      return page(slot).shipId[slot & PAGE_MASK];
+    }
+
+    @Override
+    long versionAt(int slot) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      return Math.max(p.kinematicVersion[i], p.identityVersion[i]);
+    }
+
+    @Override
+    ShipData materialize(int slot) {
+      return page(slot).materialize(slot & PAGE_MASK);
+    }
+
+    @Override
+    void copyTo(int slot, FleetSnapshot target) {
+      page(slot).copyTo(slot & PAGE_MASK, target, slot);
+    }
+
+    @Override
+    boolean updateKinematic(int slot, int shipId, KinematicDataGenerator kinematicGenerator,
+        long version, KinematicFixListener fixed) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      // Updated in place through a per-thread scratch tuple, so no object is allocated
+      double[] state = SCRATCH.get();
+      long now;
+      long written;
+      long seq = p.sequence.beginWrite(i);
+      try {
+        if (p.shipId[i] != shipId) {
+          return false;
+        }
+        now = clock.getAsLong();
+        p.kinematics.read(i, state);
+        kinematicGenerator.advance(state,
+            KinematicDataGenerator.elapsedSeconds(p.lastUpdate[i], now));
+        p.kinematics.write(i, state);
+        p.lastUpdate[i] = now;
+        written = Math.max(p.kinematicVersion[i], version);
+        p.kinematicVersion[i] = written;
+        // The fixed-point columns round; report what a read will return
+        p.kinematics.read(i, state);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+      fixed.fixed(shipId, written, now, state[KinematicDataGenerator.SPEED],
+          state[KinematicDataGenerator.COURSE], state[KinematicDataGenerator.LATITUDE],
+          state[KinematicDataGenerator.LONGITUDE]);
+      return true;
+    }
+
+    @Override
+    int updateKinematicSlots(int[] slots, int[] shipIds, int count,
+        KinematicDataGenerator kinematicGenerator, long version, KinematicFixListener fixed) {
+      BatchScratch batch = BATCH_SCRATCH.get().ensure(count);
+      long now = clock.getAsLong();
+      int gathered = 0;
+      for (int k = 0; k < count; k++) {
+        int slot = slots[k];
+        if (slot == ShipIndex.ABSENT) {
+          continue;
+        }
+        Page p = page(slot);
+        int i = slot & PAGE_MASK;
+        while (true) {
+          long seq = p.sequence.beginRead(i);
+          int current = p.shipId[i];
+          batch.speed[gathered] = p.kinematics.speed(i);
+          batch.course[gathered] = p.kinematics.course(i);
+          batch.latitude[gathered] = p.kinematics.latitude(i);
+          batch.longitude[gathered] = p.kinematics.longitude(i);
+          batch.seconds[gathered] = KinematicDataGenerator.elapsedSeconds(p.lastUpdate[i], now);
+          if (p.sequence.validate(i, seq)) {
+            if (current == shipIds[k]) {
+              batch.entry[gathered] = k;
+              batch.sequence[gathered] = seq;
+              gathered++;
+            }
+            break;
+          }
+        }
+      }
+
+      kinematicGenerator.advanceBatch(batch.speed, batch.course, batch.seconds, batch.latitude,
+          batch.longitude, gathered);
+
+      int done = 0;
+      for (int g = 0; g < gathered; g++) {
+        int k = batch.entry[g];
+        int slot = slots[k];
+        Page p = page(slot);
+        int i = slot & PAGE_MASK;
+        snapshots.beforeWrite(slot);
+        long seq = p.sequence.beginWrite(i);
+        if (seq == batch.sequence[g]) {
+          p.kinematics.write(i, batch.speed[g], batch.course[g], batch.latitude[g],
+              batch.longitude[g]);
+          p.lastUpdate[i] = now;
+          long written = Math.max(p.kinematicVersion[i], version);
+          p.kinematicVersion[i] = written;
+          double speed = p.kinematics.speed(i);
+          double course = p.kinematics.course(i);
+          double latitude = p.kinematics.latitude(i);
+          double longitude = p.kinematics.longitude(i);
+          p.sequence.endWrite(i, seq);
+          done++;
+          fixed.fixed(shipIds[k], written, now, speed, course, latitude, longitude);
+        } else {
+          p.sequence.endWrite(i, seq);
+          if (updateKinematic(slot, shipIds[k], kinematicGenerator, version, fixed)) {
+            done++;
+          }
+        }
+      }
+      return done;
+    }
+
+    @Override
+    boolean updateIdentity(int slot, int shipId, IdentityData identity, long version) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long seq = p.sequence.beginWrite(i);
+      try {
+        if (p.shipId[i] != shipId) {
+          return false;
+        }
+        p.writeIdentity(i, identity);
+        p.identityVersion[i] = Math.max(p.identityVersion[i], version);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+      return true;
+    }
+
+    @Override
+    long read(int slot, int shipId, double[] state) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      while (true) {
+        long seq = p.sequence.beginRead(i);
+        int current = p.shipId[i];
+        p.kinematics.read(i, state);
+        long fixTime = p.lastUpdate[i];
+        if (p.sequence.validate(i, seq)) {
+          return current == shipId ? fixTime : FleetStore.ABSENT;
+        }
+      }
+    }
+
+    @Override
+    void addStorageBytes(MemoryFootprint footprint) {
+      Page[] current = pages;
+      long bytes = MemoryFootprint.referenceArrayBytes(current.length);
+      for (Page page : current) {
+        bytes += page.bytes();
+      }
+      footprint.add(MemoryFootprint.SHIPS, bytes);
+    }
+  }
+
+  /**
+   * Per-thread arrays a kinematic batch is gathered into: the state of each gathered ship and
+   * the seconds since it was fixed, its position in the batch and the sequence value it was read
+   * at.
+   */
+  private static final class BatchScratch {
+    double[] speed = new double[0];
+    double[] course = new double[0];
+    double[] latitude = new double[0];
+    double[] longitude = new double[0];
+    double[] seconds = new double[0];
+    int[] entry = new int[0];
+    long[] sequence = new long[0];
+
+    BatchScratch ensure(int count) {
+      if (entry.length < count) {
+        int size = Math.max(count, entry.length * 2);
+        speed = new double[size];
+        course = new double[size];
+        latitude = new double[size];
+        longitude = new double[size];
+        seconds = new double[size];
+        entry = new int[size];
+        sequence = new long[size];
+      }
+      return this;
+    }
+  }
+
+  /**
+   * Columns for {@link SlotFleet#PAGE_SIZE} consecutive slots, indexed by slot within the page.
+   */
+  private static final class Page {
+    final int[] shipId = new int[SlotFleet.PAGE_SIZE];
+    final KinematicColumns kinematics;
+    final long[] lastUpdate = new long[SlotFleet.PAGE_SIZE];
+    final long[] kinematicVersion = new long[SlotFleet.PAGE_SIZE];
+    final long[] identityVersion = new long[SlotFleet.PAGE_SIZE];
+    final int[] imo = new int[SlotFleet.PAGE_SIZE];
+    final int[] mmsi = new int[SlotFleet.PAGE_SIZE];
+    final long[] callSign = new long[SlotFleet.PAGE_SIZE];
+    final int[] shipNameCode = new int[SlotFleet.PAGE_SIZE];
+    final int[] shipNameNumber = new int[SlotFleet.PAGE_SIZE];
+    final int[] shipTypeCode = new int[SlotFleet.PAGE_SIZE];
+    final SequenceLocks sequence = new SequenceLocks(SlotFleet.PAGE_SIZE);
+
+    Page(boolean compact) {
+      this.kinematics = KinematicColumns.create(compact, SlotFleet.PAGE_SIZE);
+    }
+
+    long bytes() {
+      int n = SlotFleet.PAGE_SIZE;
+      // shipId, imo, mmsi, name code, hull number, type code; lastUpdate, both versions, call
+      // sign and the sequence counter
+      return kinematics.bytes() + MemoryFootprint.arrayBytes(n, Integer.BYTES) * 6
+          + MemoryFootprint.arrayBytes(n, Long.BYTES) * 5;
+    }
+
+    void write(int i, int id, KinematicData kinematic, IdentityData identity, long timestamp,
+        long version) {
+      shipId[i] = id;
+      kinematics.write(i, kinematic.getSpeed(), kinematic.getCourse(), kinematic.getLatitude(),
+          kinematic.getLongitude());
+      lastUpdate[i] = timestamp;
+      kinematicVersion[i] = version;
+      identityVersion[i] = version;
+      writeIdentity(i, identity);
+    }
+
+    void writeIdentity(int i, IdentityData identity) {
+      imo[i] = identity.getImoNumber();
+      mmsi[i] = identity.getMmsiNumber();
+      callSign[i] = identity.getPackedCallSign();
+      shipNameCode[i] = identity.getShipNameCode();
+      shipNameNumber[i] = identity.getShipNameNumber();
+      shipTypeCode[i] = identity.getShipTypeCode();
+    }
+
+    void copyTo(int i, FleetSnapshot target, int index) {
+      while (true) {
+        long seq = sequence.beginRead(i);
+        target.shipId[index] = shipId[i];
+        target.speed[index] = kinematics.speed(i);
+        target.course[index] = kinematics.course(i);
+        target.latitude[index] = kinematics.latitude(i);
+        target.longitude[index] = kinematics.longitude(i);
+        target.lastUpdate[index] = lastUpdate[i];
+        target.kinematicVersion[index] = kinematicVersion[i];
+        target.identityVersion[index] = identityVersion[i];
+        target.imo[index] = imo[i];
+        target.mmsi[index] = mmsi[i];
+        target.callSign[index] = callSign[i];
+        target.shipNameCode[index] = shipNameCode[i];
+        target.shipNameNumber[index] = shipNameNumber[i];
+        target.shipTypeCode[index] = shipTypeCode[i];
+        if (sequence.validate(i, seq)) {
+          return;
+        }
+      }
+    }
+
+    ShipData materialize(int i) {
+      while (true) {
+        long seq = sequence.beginRead(i);
+        int idValue = shipId[i];
+        double speedValue = kinematics.speed(i);
+        double courseValue = kinematics.course(i);
+        double latitudeValue = kinematics.latitude(i);
+        double longitudeValue = kinematics.longitude(i);
+        long timestamp = lastUpdate[i];
+        long kinematicVersionValue = kinematicVersion[i];
+        long identityVersionValue = identityVersion[i];
+        int imoValue = imo[i];
+        int mmsiValue = mmsi[i];
+        long callSignValue = callSign[i];
+        int nameCodeValue = shipNameCode[i];
+        int nameNumberValue = shipNameNumber[i];
+        int typeCodeValue = shipTypeCode[i];
+        if (sequence.validate(i, seq)) {
+          if (idValue == SlotFleet.FREE) {
+            return null;
+          }
+          return new ShipData(idValue,
+              new KinematicData(speedValue, courseValue, latitudeValue, longitudeValue),
+              new IdentityData(imoValue, mmsiValue, callSignValue, nameCodeValue, nameNumberValue,
+                  typeCodeValue),
+              timestamp, kinematicVersionValue, identityVersionValue);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package simulator.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Concurrent bitset of ship ids changed since the last drain.
+ *
+ * <p>Bits live in stripes of {@value #STRIPE_BITS} ids allocated on first use, so writers on
+ * different id ranges never share a cache line and sparse high ids cost nothing until marked.
+ * Two generations are kept: {@link #drain(IntConsumer)} swaps the active one out and clears it
+ * word by word while reporting, so marking never blocks. A writer that still holds the drained
+ * generation may set a bit after its word was cleared; that bit stays in the now idle generation
+ * and is reported by the drain after next, so a change can be delayed but is never lost.
+ */
+public final class DirtyShipSet {
+  static final int STRIPE_SHIFT = 16;
+  static final int STRIPE_BITS = 1 << STRIPE_SHIFT;
+  private static final int WORDS_PER_STRIPE = STRIPE_BITS >>> 6;
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private volatile Generation active = new Generation();
+  private Generation idle = new Generation();
+  private long drainEpoch;
+
+  /**
+   * Marks {@code shipId} as changed. Negative ids are ignored.
+   */
+  public void mark(int shipId) {
+    if (shipId < 0) {
+      return;
+    }
+    long[] words = active.stripe(shipId >>> STRIPE_SHIFT);
+    int word = (shipId & (STRIPE_BITS - 1)) >>> 6;
+    long bit = 1L << shipId;
+    // Ships are often updated several times per tick; skip the atomic when already marked
+    if (((long) WORDS.getOpaque(words, word) & bit) == 0) {
+      WORDS.getAndBitwiseOr(words, word, bit);
+    }
+  }
+
+  /**
+   * Reports every marked ship id in ascending order, clearing the marks, and returns how many
+   * were reported.
+   */
+  public synchronized int drain(IntConsumer action) {
+    Generation drained = active;
+    active = idle;
+    idle = drained;
+    drainEpoch++;
+
+    int reported = 0;
+    long[][] stripes = drained.stripes;
+    for (int s = 0; s < stripes.length; s++) {
+      long[] words = stripes[s];
+      if (words == null) {
+        continue;
+      }
+      int baseId = s << STRIPE_SHIFT;
+      for (int w = 0; w < words.length; w++) {
+        if ((long) WORDS.getOpaque(words, w) == 0) {
+          continue;
+        }
+        long bits = (long) WORDS.getAndSet(words, w, 0L);
+        while (bits != 0) {
+          action.accept(baseId + (w << 6) + Long.numberOfTrailingZeros(bits));
+          bits &= bits - 1;
+          reported++;
+        }
+      }
+    }
+    return reported;
+  }
+
+  /**
+   * Number of completed drains.
+   */
+  public synchronized long getDrainEpoch() {
+    return drainEpoch;
+  }
+
+  /**
+   * Approximate number of marked ids; exact when no writer is active.
+   */
+  public int count() {
+    int count = 0;
+    for (long[] words : active.stripes) {
+      if (words != null) {
+        for (int w = 0; w < words.length; w++) {
+          count += Long.bitCount((long) WORDS.getOpaque(words, w));
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Estimated heap taken by the stripes of both generations.
+   */
+  public synchronized long getMemoryBytes() {
+    return active.bytes() + idle.bytes();
+  }
+
+  public synchronized void clear() {
+    active = new Generation();
+    idle = new Generation();
+  }
+
+  private static final class Generation {
+    volatile long[][] stripes = new long[0][];
+
+    long[] stripe(int index) {
+      long[][] current = stripes;
+      if (index < current.length && current[index] != null) {
+        return current[index];
+      }
+      return allocate(index);
+    }
+
+    long bytes() {
+      long[][] current = stripes;
+      long bytes = MemoryFootprint.referenceArrayBytes(current.length);
+      for (long[] words : current) {
+        if (words != null) {
+          bytes += MemoryFootprint.arrayBytes(words.length, Long.BYTES);
+        }
+      }
+      return bytes;
+    }
+
+    private synchronized long[] allocate(int index) {
+      long[][] current = stripes;
+      if (index >= current.length) {
+        current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+      } else if (current[index] != null) {
+        return current[index];
+      } else {
+        current = current.clone();
+      }
+      long[] words = new long[WORDS_PER_STRIPE];
+      current[index] = words;
+      stripes = current;
+      return words;
+    }
+  }
+}
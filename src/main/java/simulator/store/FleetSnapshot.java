@@ -0,0 +1,130 @@
+package simulator.store;
+
+import java.util.List;
+import simulator.data.IdentityData;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+
+/**
+ * Immutable, point-in-time image of a fleet taken with {@link FleetStore#snapshot()}.
+ *
+ * <p>Every ship appears in the state it had when the snapshot started: updates that began after
+ * that moment are excluded, so all versions in the image are at most {@link #getEpoch()}. The
+ * image is held in primitive columns indexed {@code 0 .. size() - 1}; {@link ShipData} views are
+ * only built on request.
+ */
+public final class FleetSnapshot {
+  // Both set once by the snapshot thread before the image is handed out
+  int size;
+  long epoch;
+  final long takenAt;
+  final int[] shipId;
+  final double[] speed;
+  final double[] course;
+  final double[] latitude;
+  final double[] longitude;
+  final long[] lastUpdate;
+  final long[] kinematicVersion;
+  final long[] identityVersion;
+  final int[] imo;
+  final int[] mmsi;
+  final long[] callSign;
+  final int[] shipNameCode;
+  final int[] shipNameNumber;
+  final int[] shipTypeCode;
+
+  FleetSnapshot(int capacity) {
+    this.size = capacity;
+    this.takenAt = System.currentTimeMillis();
+    this.shipId = new int[capacity];
+    this.speed = new double[capacity];
+    this.course = new double[capacity];
+    this.latitude = new double[capacity];
+    this.longitude = new double[capacity];
+    this.lastUpdate = new long[capacity];
+    this.kinematicVersion = new long[capacity];
+    this.identityVersion = new long[capacity];
+    this.imo = new int[capacity];
+    this.mmsi = new int[capacity];
+    this.callSign = new long[capacity];
+    this.shipNameCode = new int[capacity];
+    this.shipNameNumber = new int[capacity];
+    this.shipTypeCode = new int[capacity];
+  }
+
+  void copyFrom(int index, ShipData ship) {
+    KinematicData kinematic = ship.getKinematicData();
+    IdentityData identity = ship.getIdentityData();
+    shipId[index] = ship.getShipId();
+    speed[index] = kinematic.getSpeed();
+    course[index] = kinematic.getCourse();
+    latitude[index] = kinematic.getLatitude();
+    longitude[index] = kinematic.getLongitude();
+    lastUpdate[index] = ship.getLastUpdateTimestamp();
+    kinematicVersion[index] = ship.getKinematicVersion();
+    identityVersion[index] = ship.getIdentityVersion();
+    imo[index] = identity.getImoNumber();
+    mmsi[index] = identity.getMmsiNumber();
+    callSign[index] = identity.getPackedCallSign();
+    shipNameCode[index] = identity.getShipNameCode();
+    shipNameNumber[index] = identity.getShipNameNumber();
+    shipTypeCode[index] = identity.getShipTypeCode();
+  }
+
+  /**
+   * Drops the free slots among the first {@code slots} entries, keeping the others in order.
+   */
+  void retainOccupied(int slots) {
+    int kept = 0;
+    for (int i = 0; i < slots; i++) {
+      if (shipId[i] == SlotFleet.FREE) {
+        continue;
+      }
+      if (kept != i) {
+        shipId[kept] = shipId[i];
+        speed[kept] = speed[i];
+        course[kept] = course[i];
+        latitude[kept] = latitude[i];
+        longitude[kept] = longitude[i];
+        lastUpdate[kept] = lastUpdate[i];
+        kinematicVersion[kept] = kinematicVersion[i];
+        identityVersion[kept] = identityVersion[i];
+        imo[kept] = imo[i];
+        mmsi[kept] = mmsi[i];
+        callSign[kept] = callSign[i];
+        shipNameCode[kept] = shipNameCode[i];
+        shipNameNumber[kept] = shipNameNumber[i];
+        shipTypeCode[kept] = shipTypeCode[i];
+      }
+      kept++;
+    }
+    size = kept;
+  }
+
+  public int size() { return size; }
+  public long getEpoch() { return epoch; }
+  public long getTakenAt() { return takenAt; }
+
+  // Primitive accessors, for exporters and aggregations that should not materialize ships
+  public int getShipId(int index) { return shipId[index]; }
+  public double getSpeed(int index) { return speed[index]; }
+  public double getCourse(int index) { return course[index]; }
+  public double getLatitude(int index) { return latitude[index]; }
+  public double getLongitude(int index) { return longitude[index]; }
+  public long getVersion(int index) { return Math.max(kinematicVersion[index], identityVersion[index]); }
+
+  public ShipData getShip(int index) {
+    return new ShipData(shipId[index],
+        new KinematicData(speed[index], course[index], latitude[index], longitude[index]),
+        new IdentityData(imo[index], mmsi[index], callSign[index], shipNameCode[index],
+            shipNameNumber[index], shipTypeCode[index]),
+        lastUpdate[index], kinematicVersion[index], identityVersion[index]);
+  }
+
+  /**
+   * Read-only list view materializing ships from the image.
+   */
+  public List<ShipData> getShips() {
+    return new SlotShipList(size, this::getShip);
+  }
+}
@@ -0,0 +1,136 @@
+package simulator.store;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * Storage backend for the fleet state held by {@link simulator.service.ShipDataService}.
+ */
+public interface FleetStore {
+  // Fix time returned by readKinematicFix for a ship that does not exist
+  long ABSENT = -1;
+
+  /**
+   * Builds a fleet with ids {@code 1..numberOfShips} in a single pass, optionally filling slot
+   * ranges in parallel, and publishes it once complete. Each range draws from its own split of
+   * the generators, so the fleet depends only on their seeds.
+   */
+  void initialize(int numberOfShips, KinematicDataGenerator kinematicGenerator,
+      IdentityDataGenerator identityGenerator, boolean parallel);
+
+  /**
+   * Clock in epoch milliseconds that fixes are stamped with and the time moved since a fix is
+   * measured against; the wall clock unless set.
+   */
+  void setClock(LongSupplier clock);
+
+  ShipData getShip(int shipId);
+
+  /**
+   * Advances the kinematic state of {@code shipId} and reports what was written to
+   * {@code fixed}.
+   *
+   * @return false if the ship does not exist
+   */
+  boolean updateKinematicData(int shipId, KinematicDataGenerator kinematicGenerator,
+      KinematicFixListener fixed);
+
+  boolean updateIdentityData(int shipId, IdentityDataGenerator identityGenerator);
+
+  /**
+   * Advances the kinematic state of the ships in {@code shipIds[0 .. count - 1]} in one pass and
+   * reports each state written for a ship that exists to {@code fixed}. The batch advances the
+   * fleet epoch once; all of its changes carry the new value as their version.
+   *
+   * @return the number of ships updated
+   */
+  int updateKinematicBatch(int[] shipIds, int count, KinematicDataGenerator kinematicGenerator,
+      KinematicFixListener fixed);
+
+  /**
+   * Identity counterpart of {@link #updateKinematicBatch}, calling {@code updated} with the id of
+   * each ship that exists.
+   */
+  int updateIdentityBatch(int[] shipIds, int count, IdentityDataGenerator identityGenerator,
+      IntConsumer updated);
+
+  /**
+   * Copies a consistent speed/course/latitude/longitude tuple for {@code shipId} into
+   * {@code state}, laid out as in {@link KinematicDataGenerator#advance(double[], double)},
+   * without allocating.
+   *
+   * @return false if the ship does not exist
+   */
+  boolean readKinematicData(int shipId, double[] state);
+
+  /**
+   * {@link #readKinematicData(int, double[])} that also returns when the tuple was fixed, read
+   * consistently with it.
+   *
+   * @return the fix time in epoch milliseconds, or {@link #ABSENT} if the ship does not exist
+   */
+  long readKinematicFix(int shipId, double[] state);
+
+  /**
+   * Adds a ship built by the generators and returns its id: the id released longest ago if any,
+   * otherwise the next unused one. The ship takes a slot freed by an earlier removal when there
+   * is one and extends the store otherwise.
+   */
+  int addShip(KinematicDataGenerator kinematicGenerator, IdentityDataGenerator identityGenerator);
+
+  /**
+   * Removes a ship and releases its slot and id for reuse.
+   *
+   * @return false if the ship does not exist
+   */
+  boolean removeShip(int shipId);
+
+  /**
+   * Read-only view of the fleet in slot order. Weakly consistent: a ship removed after the call
+   * reads as null and a recycled slot shows its new ship.
+   */
+  List<ShipData> getAllShips();
+
+  /**
+   * Splittable traversal of the fleet in slot order, with the same consistency as
+   * {@link #getAllShips()}. Splits fall on page boundaries and the size is an estimate.
+   */
+  Spliterator<ShipData> spliterator();
+
+  int size();
+
+  /**
+   * Exclusive upper bound of the ship ids in use; ids are recycled, so it tracks the peak fleet
+   * size rather than the number of arrivals.
+   */
+  int getShipIdBound();
+
+  /**
+   * Global counter advanced by every update; the new value stamps the changed ship's kinematic
+   * or identity version. A freshly initialized fleet is at epoch 1 with every ship at version 1.
+   */
+  long getFleetEpoch();
+
+  /**
+   * Calls {@code action} for every ship whose kinematic or identity version is greater than
+   * {@code watermark}, in slot order, and returns the watermark to pass on the next call. It
+   * stays below every write still in progress when the scan starts, so no write is missed.
+   */
+  long forEachChangedSince(long watermark, Consumer<ShipData> action);
+
+  /**
+   * Takes a consistent point-in-time image of the fleet without pausing writers.
+   */
+  FleetSnapshot snapshot();
+
+  /**
+   * Estimates the memory held by the ships, their slots and the id index.
+   */
+  MemoryFootprint getMemoryFootprint();
+}
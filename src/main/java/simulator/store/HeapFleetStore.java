@@ -0,0 +1,168 @@
+package simulator.store;
+
+import java.util.Arrays;
+import simulator.data.IdentityData;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * One {@link ShipData} object per ship, each update swapping in a new immutable value.
+ */
+public class HeapFleetStore extends SlotFleetStore {
+
+  public HeapFleetStore() {
+    super(new Fleet(0));
+  }
+
+  @Override
+  SlotFleet createFleet(int numberOfShips) {
+    return new Fleet(numberOfShips);
+  }
+
+  private static final class Fleet extends SlotFleet {
+    // ShipData with its two AtomicReferences, KinematicData and IdentityData
+    private static final long SHIP_BYTES =
+        MemoryFootprint.objectBytes(Integer.BYTES + MemoryFootprint.REFERENCE * 2 + Long.BYTES * 3)
+            + MemoryFootprint.objectBytes(MemoryFootprint.REFERENCE) * 2
+            + MemoryFootprint.objectBytes(Double.BYTES * 4)
+            + MemoryFootprint.objectBytes(Integer.BYTES * 5 + Long.BYTES);
+
+    // Pages are only added, so a ship object never moves once stored
+    private volatile ShipData[][] pages;
+
+    Fleet(int numberOfShips) {
+      super(numberOfShips);
+      ShipData[][] initial = new ShipData[pageCount(numberOfShips)][];
+      for (int page = 0; page < initial.length; page++) {
+        initial[page] = new ShipData[PAGE_SIZE];
+      }
+      this.pages = initial;
+    }
+
+    private ShipData ship(int slot) {
+      return pages[slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+    }
+
+    private void setShip(int slot, ShipData ship) {
+      pages[slot >>> PAGE_SHIFT][slot & PAGE_MASK] = ship;
+    }
+
+    @Override
+    void ensurePage(int slot) {
+      int page = slot >>> PAGE_SHIFT;
+      ShipData[][] current = pages;
+      if (page < current.length) {
+        return;
+      }
+      ShipData[][] grown = Arrays.copyOf(current, page + 1);
+      grown[page] = new ShipData[PAGE_SIZE];
+      pages = grown;
+    }
+
+    @Override
+    void fill(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      setShip(slot, new ShipData(shipId, kinematic, identity, timestamp, version, version));
+    }
+
+    @Override
+    void insert(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      // ShipData publishes safely through its final fields, so a plain store is enough
+      fill(slot, shipId, kinematic, identity, timestamp, version);
+    }
+
+    @Override
+    void clear(int slot) {
+      setShip(slot, null);
+    }
+
+    @Override
+    int shipIdAt(int slot) {
+      ShipData ship = ship(slot);
+      return ship == null ? FREE : ship.getShipId();
+    }
+
+    @Override
+    long versionAt(int slot) {
+      ShipData ship = ship(slot);
+      return ship == null ? 0 : ship.getVersion();
+    }
+
+    @Override
+    ShipData materialize(int slot) {
+      return ship(slot);
+    }
+
+    @Override
+    void copyTo(int slot, FleetSnapshot target) {
+      ShipData ship = ship(slot);
+      if (ship != null) {
+        // Writers hold the ship's monitor, so a write in flight cannot tear the copied tuple
+        synchronized (ship) {
+          target.copyFrom(slot, ship);
+        }
+      }
+    }
+
+    @Override
+    boolean updateKinematic(int slot, int shipId, KinematicDataGenerator kinematicGenerator,
+        long version, KinematicFixListener fixed) {
+      ShipData ship = ship(slot);
+      if (ship == null || ship.getShipId() != shipId) {
+        return false;
+      }
+      long now = clock.getAsLong();
+      KinematicData written;
+      long writtenVersion;
+      // Kinematic writers hold the monitor, so the version read is the one stamped on this state
+      synchronized (ship) {
+        written = ship.updateKinematicData(
+            (current, elapsed) -> kinematicGenerator.generateUpdate(current, elapsed / 1000.0),
+            now, version);
+        writtenVersion = ship.getKinematicVersion();
+      }
+      fixed.fixed(shipId, writtenVersion, now, written.getSpeed(), written.getCourse(),
+          written.getLatitude(), written.getLongitude());
+      return true;
+    }
+
+    @Override
+    boolean updateIdentity(int slot, int shipId, IdentityData identity, long version) {
+      ShipData ship = ship(slot);
+      if (ship == null || ship.getShipId() != shipId) {
+        return false;
+      }
+      ship.updateIdentityData(identity, version);
+      return true;
+    }
+
+    @Override
+    long read(int slot, int shipId, double[] state) {
+      ShipData ship = ship(slot);
+      if (ship == null || ship.getShipId() != shipId) {
+        return FleetStore.ABSENT;
+      }
+      KinematicData kinematic;
+      long fixTime;
+      // Kinematic writers hold the ship's monitor, so the state and its fix time match
+      synchronized (ship) {
+        kinematic = ship.getKinematicData();
+        fixTime = ship.getLastUpdateTimestamp();
+      }
+      state[KinematicDataGenerator.SPEED] = kinematic.getSpeed();
+      state[KinematicDataGenerator.COURSE] = kinematic.getCourse();
+      state[KinematicDataGenerator.LATITUDE] = kinematic.getLatitude();
+      state[KinematicDataGenerator.LONGITUDE] = kinematic.getLongitude();
+      return fixTime;
+    }
+
+    @Override
+    void addStorageBytes(MemoryFootprint footprint) {
+      int pageCount = pages.length;
+      footprint.add(MemoryFootprint.SHIPS, MemoryFootprint.referenceArrayBytes(pageCount)
+          + pageCount * MemoryFootprint.referenceArrayBytes(PAGE_SIZE) + size() * SHIP_BYTES);
+    }
+  }
+}
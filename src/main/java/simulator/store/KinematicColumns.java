@@ -0,0 +1,116 @@
+package simulator.store;
+
+import simulator.data.CompactKinematics;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * Speed, course, latitude and longitude columns for one page of a {@link ColumnarFleetStore},
+ * either as doubles or in the fixed-point form of {@link CompactKinematics}. Callers provide the
+ * synchronization.
+ */
+abstract class KinematicColumns {
+
+  static KinematicColumns create(boolean compact, int size) {
+    return compact ? new FixedPoint(size) : new Doubles(size);
+  }
+
+  abstract double speed(int i);
+  abstract double course(int i);
+  abstract double latitude(int i);
+  abstract double longitude(int i);
+
+  abstract void write(int i, double speed, double course, double latitude, double longitude);
+
+  abstract long bytes();
+
+  /**
+   * Copies slot {@code i} into {@code state}, laid out as in
+   * {@link KinematicDataGenerator#advance(double[], double)}.
+   */
+  void read(int i, double[] state) {
+    state[KinematicDataGenerator.SPEED] = speed(i);
+    state[KinematicDataGenerator.COURSE] = course(i);
+    state[KinematicDataGenerator.LATITUDE] = latitude(i);
+    state[KinematicDataGenerator.LONGITUDE] = longitude(i);
+  }
+
+  void write(int i, double[] state) {
+    write(i, state[KinematicDataGenerator.SPEED], state[KinematicDataGenerator.COURSE],
+        state[KinematicDataGenerator.LATITUDE], state[KinematicDataGenerator.LONGITUDE]);
+  }
+
+  private static final class Doubles extends KinematicColumns {
+    private final double[] speed;
+    private final double[] course;
+    private final double[] latitude;
+    private final double[] longitude;
+
+    Doubles(int size) {
+      this.speed = new double[size];
+      this.course = new double[size];
+      this.latitude = new double[size];
+      this.longitude = new double[size];
+    }
+
+    @Override
+    double speed(int i) { return speed[i]; }
+    @Override
+    double course(int i) { return course[i]; }
+    @Override
+    double latitude(int i) { return latitude[i]; }
+    @Override
+    double longitude(int i) { return longitude[i]; }
+
+    @Override
+    void write(int i, double speedValue, double courseValue, double latitudeValue,
+        double longitudeValue) {
+      speed[i] = speedValue;
+      course[i] = courseValue;
+      latitude[i] = latitudeValue;
+      longitude[i] = longitudeValue;
+    }
+
+    @Override
+    long bytes() {
+      return MemoryFootprint.arrayBytes(speed.length, Double.BYTES) * 4;
+    }
+  }
+
+  private static final class FixedPoint extends KinematicColumns {
+    private final short[] speed;
+    private final short[] course;
+    private final int[] latitude;
+    private final int[] longitude;
+
+    FixedPoint(int size) {
+      this.speed = new short[size];
+      this.course = new short[size];
+      this.latitude = new int[size];
+      this.longitude = new int[size];
+    }
+
+    @Override
+    double speed(int i) { return CompactKinematics.decodeSpeed(speed[i]); }
+    @Override
+    double course(int i) { return CompactKinematics.decodeCourse(course[i]); }
+    @Override
+    double latitude(int i) { return CompactKinematics.decodeDegrees(latitude[i]); }
+    @Override
+    double longitude(int i) { return CompactKinematics.decodeDegrees(longitude[i]); }
+
+    @Override
+    void write(int i, double speedValue, double courseValue, double latitudeValue,
+        double longitudeValue) {
+      speed[i] = CompactKinematics.encodeSpeed(speedValue);
+      course[i] = CompactKinematics.encodeCourse(courseValue);
+      latitude[i] = CompactKinematics.encodeDegrees(latitudeValue);
+      longitude[i] = CompactKinematics.encodeDegrees(longitudeValue);
+    }
+
+    @Override
+    long bytes() {
+      return (MemoryFootprint.arrayBytes(speed.length, Short.BYTES)
+          + MemoryFootprint.arrayBytes(speed.length, Integer.BYTES)) * 2;
+    }
+  }
+}
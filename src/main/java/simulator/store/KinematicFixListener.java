@@ -0,0 +1,14 @@
+package simulator.store;
+
+/**
+ * Receives each kinematic state a {@link FleetStore} update writes, with the version and fix
+ * time written alongside it. Called once the ship's write is complete, on the updating thread.
+ */
+@FunctionalInterface
+public interface KinematicFixListener {
+  KinematicFixListener NONE = (shipId, version, timestamp, speed, course, latitude, longitude) -> {
+  };
+
+  void fixed(int shipId, long version, long timestamp, double speed, double course,
+      double latitude, double longitude);
+}
@@ -0,0 +1,139 @@
+package simulator.store;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import simulator.data.StringTable;
+
+/**
+ * Estimated memory held by the fleet and its supporting structures, by component. Figures are
+ * shallow estimates for a 64-bit JVM with compressed references: headers plus fields, padded to 8
+ * bytes, without allocator or GC overhead. Filled by its producers through {@link #add} and
+ * read-only once handed out.
+ */
+public final class MemoryFootprint {
+  public static final String SHIPS = "Ships";
+  public static final String INDEX = "Index";
+  public static final String IDENTITY_STRINGS = "Identity strings";
+  public static final String CHANGE_TRACKING = "Change tracking";
+  public static final String TRACK_HISTORY = "Track history";
+  public static final String TRACK_ARCHIVE = "Track archive";
+  public static final String TIME_SERIES = "Time series";
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  static final int REFERENCE = 4;
+  // ConcurrentHashMap node, boxed Integer value and table slot per dictionary entry
+  private static final long MAP_ENTRY_BYTES = objectBytes(REFERENCE * 3 + Integer.BYTES)
+      + objectBytes(Integer.BYTES) + REFERENCE;
+
+  private final int shipCount;
+  private final Map<String, Long> components = new LinkedHashMap<>();
+  private long offHeapBytes;
+
+  public MemoryFootprint(int shipCount) {
+    this.shipCount = shipCount;
+  }
+
+  /**
+   * Adds {@code bytes} of heap to {@code component}.
+   */
+  public MemoryFootprint add(String component, long bytes) {
+    components.merge(component, bytes, Long::sum);
+    return this;
+  }
+
+  /**
+   * Adds {@code bytes} of native or mapped memory to {@code component}.
+   */
+  public MemoryFootprint addOffHeap(String component, long bytes) {
+    offHeapBytes += bytes;
+    return add(component, bytes);
+  }
+
+  public int getShipCount() { return shipCount; }
+  public long getOffHeapBytes() { return offHeapBytes; }
+  public long getHeapBytes() { return getTotalBytes() - offHeapBytes; }
+
+  /**
+   * Bytes per component, in the order they were added.
+   */
+  public Map<String, Long> getComponents() {
+    return Collections.unmodifiableMap(components);
+  }
+
+  public long getBytes(String component) {
+    return components.getOrDefault(component, 0L);
+  }
+
+  public long getTotalBytes() {
+    long total = 0;
+    for (long bytes : components.values()) {
+      total += bytes;
+    }
+    return total;
+  }
+
+  public double getBytesPerShip() {
+    return shipCount == 0 ? 0 : (double) getTotalBytes() / shipCount;
+  }
+
+  /**
+   * Total for a fleet of {@code ships} with the same configuration, scaling every component but
+   * the identity dictionaries, which depend on the name and type vocabulary rather than on the
+   * fleet size.
+   */
+  public long estimateTotalBytes(int ships) {
+    long fixed = getBytes(IDENTITY_STRINGS);
+    if (shipCount == 0) {
+      return fixed;
+    }
+    return fixed + Math.round((double) (getTotalBytes() - fixed) / shipCount * ships);
+  }
+
+  static long objectBytes(long fieldBytes) {
+    return align(OBJECT_HEADER + fieldBytes);
+  }
+
+  static long arrayBytes(long length, int elementBytes) {
+    return align(ARRAY_HEADER + length * elementBytes);
+  }
+
+  static long referenceArrayBytes(long length) {
+    return arrayBytes(length, REFERENCE);
+  }
+
+  /**
+   * Strings, code array and lookup map of a dictionary.
+   */
+  public static long tableBytes(StringTable table) {
+    long bytes = objectBytes(REFERENCE * 3) + referenceArrayBytes(table.size());
+    for (String value : table.entries()) {
+      // Compact Latin-1 strings: String object plus its byte[]
+      bytes += objectBytes(REFERENCE + Integer.BYTES * 2) + arrayBytes(value.length(), 1)
+          + MAP_ENTRY_BYTES;
+    }
+    return bytes;
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    for (Map.Entry<String, Long> component : components.entrySet()) {
+      if (text.length() > 0) {
+        text.append(", ");
+      }
+      text.append(component.getKey()).append(' ').append(megabytes(component.getValue()));
+    }
+    return text.append(String.format(" (%s total, %.0f B/ship)", megabytes(getTotalBytes()),
+        getBytesPerShip())).toString();
+  }
+
+  private static String megabytes(long bytes) {
+    return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+  }
+}
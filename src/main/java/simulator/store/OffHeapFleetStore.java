@@ -0,0 +1,446 @@
+package simulator.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.ref.Cleaner;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import simulator.data.IdentityData;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * Fleet store that keeps one fixed-size kinematic and identity record per ship in native memory
+ * obtained through the foreign memory API, optionally backed by a memory-mapped file. Only the
+ * per-slot sequence counters stay on the heap. Records are grouped in pages; the initial fleet
+ * is allocated as one region and every page added later gets a region of its own.
+ *
+ * <p>Every fleet generation maps a uniquely named file of its own next to the configured path,
+ * created when the generation first needs memory. Readers still holding a previous fleet keep a
+ * valid mapping; a generation's memory is released, and its file unmapped, closed and deleted,
+ * once no reader holds it.
+ */
+public class OffHeapFleetStore extends SlotFleetStore {
+
+  static final StructLayout SHIP_RECORD = MemoryLayout.structLayout(
+      ValueLayout.JAVA_DOUBLE.withName("speed"),
+      ValueLayout.JAVA_DOUBLE.withName("course"),
+      ValueLayout.JAVA_DOUBLE.withName("latitude"),
+      ValueLayout.JAVA_DOUBLE.withName("longitude"),
+      ValueLayout.JAVA_LONG.withName("lastUpdate"),
+      ValueLayout.JAVA_LONG.withName("kinematicVersion"),
+      ValueLayout.JAVA_LONG.withName("identityVersion"),
+      ValueLayout.JAVA_LONG.withName("callSign"),
+      ValueLayout.JAVA_INT.withName("imo"),
+      ValueLayout.JAVA_INT.withName("mmsi"),
+      ValueLayout.JAVA_INT.withName("shipNameCode"),
+      ValueLayout.JAVA_INT.withName("shipNameNumber"),
+      ValueLayout.JAVA_INT.withName("shipTypeCode"),
+      ValueLayout.JAVA_INT.withName("shipId")
+  );
+
+  private static final long RECORD_SIZE = SHIP_RECORD.byteSize();
+  private static final long SPEED = offsetOf("speed");
+  private static final long COURSE = offsetOf("course");
+  private static final long LATITUDE = offsetOf("latitude");
+  private static final long LONGITUDE = offsetOf("longitude");
+  private static final long LAST_UPDATE = offsetOf("lastUpdate");
+  private static final long KINEMATIC_VERSION = offsetOf("kinematicVersion");
+  private static final long IDENTITY_VERSION = offsetOf("identityVersion");
+  private static final long CALL_SIGN = offsetOf("callSign");
+  private static final long IMO = offsetOf("imo");
+  private static final long MMSI = offsetOf("mmsi");
+  private static final long SHIP_NAME_CODE = offsetOf("shipNameCode");
+  private static final long SHIP_NAME_NUMBER = offsetOf("shipNameNumber");
+  private static final long SHIP_TYPE_CODE = offsetOf("shipTypeCode");
+  private static final long SHIP_ID = offsetOf("shipId");
+  private static final long PAGE_BYTES = SlotFleet.PAGE_SIZE * RECORD_SIZE;
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private static final ThreadLocal<double[]> SCRATCH =
+      ThreadLocal.withInitial(() -> new double[KinematicDataGenerator.STATE_SIZE]);
+
+  private final Path mappedFile;
+
+  /**
+   * Store backed by anonymous native memory.
+   */
+  public OffHeapFleetStore() {
+    this(null);
+  }
+
+  /**
+   * Store backed by memory-mapped files, or anonymous native memory when {@code mappedFile} is
+   * null. Each fleet generation maps a file of its own named after {@code mappedFile}, in the
+   * same directory, that grows with the fleet.
+   */
+  public OffHeapFleetStore(Path mappedFile) {
+    super(new Records(0, mappedFile));
+    this.mappedFile = mappedFile;
+  }
+
+  private static long offsetOf(String field) {
+    return SHIP_RECORD.byteOffset(PathElement.groupElement(field));
+  }
+
+  @Override
+  SlotFleet createFleet(int numberOfShips) {
+    // The previous fleet's storage is released by its cleaner once no reader holds it
+    return new Records(numberOfShips, mappedFile);
+  }
+
+  /**
+   * File mapped by the current fleet generation, or null if it has none yet.
+   */
+  Path generationFile() {
+    return ((Records) fleet()).storage.file;
+  }
+
+  /**
+   * Native memory of one fleet generation, and the file behind it when mapped. The file is created
+   * on the first allocation, so a generation that never holds a ship leaves none behind.
+   * {@link #run()} releases everything once the generation is unreachable; until then no mapping
+   * is closed, so deleting the file cannot fail on platforms that refuse to delete mapped files.
+   */
+  private static final class Storage implements Runnable {
+    private final Path mappedFile;
+    private final Arena arena = Arena.ofShared();
+    private FileChannel channel;
+    volatile Path file;
+
+    Storage(Path mappedFile) {
+      this.mappedFile = mappedFile;
+    }
+
+    synchronized MemorySegment allocate(long offset, long bytes) {
+      if (bytes == 0) {
+        return MemorySegment.NULL;
+      }
+      if (mappedFile == null) {
+        return arena.allocate(bytes, ValueLayout.JAVA_LONG.byteAlignment());
+      }
+      try {
+        if (channel == null) {
+          Path directory = mappedFile.toAbsolutePath().getParent();
+          Path created = Files.createTempFile(directory, mappedFile.getFileName() + ".", ".gen");
+          // Covers generations still reachable at exit, which are never cleaned
+          created.toFile().deleteOnExit();
+          channel = FileChannel.open(created, StandardOpenOption.READ, StandardOpenOption.WRITE);
+          file = created;
+        }
+        // Mapping past the end grows the file
+        return channel.map(MapMode.READ_WRITE, offset, bytes, arena);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot map fleet store file next to " + mappedFile, e);
+      }
+    }
+
+    @Override
+    public synchronized void run() {
+      // Unmaps before the file is closed and deleted
+      arena.close();
+      if (channel == null) {
+        return;
+      }
+      try {
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // Left to deleteOnExit
+      }
+    }
+  }
+
+  private static final class Records extends SlotFleet {
+    private final Storage storage;
+    private volatile Page[] pages;
+
+    Records(int numberOfShips, Path mappedFile) {
+      super(numberOfShips);
+      this.storage = new Storage(mappedFile);
+      CLEANER.register(this, storage);
+      int count = pageCount(numberOfShips);
+      MemorySegment region = storage.allocate(0, count * PAGE_BYTES);
+      Page[] initial = new Page[count];
+      for (int page = 0; page < count; page++) {
+        initial[page] = new Page(region.asSlice(page * PAGE_BYTES, PAGE_BYTES));
+      }
+      this.pages = initial;
+    }
+
+    private Page page(int slot) {
+      return pages[slot >>> PAGE_SHIFT];
+    }
+
+    private static long base(int slot) {
+      return (slot & PAGE_MASK) * RECORD_SIZE;
+    }
+
+    @Override
+    void ensurePage(int slot) {
+      int page = slot >>> PAGE_SHIFT;
+      Page[] current = pages;
+      if (page < current.length) {
+        return;
+      }
+      Page[] grown = Arrays.copyOf(current, page + 1);
+      grown[page] = new Page(storage.allocate(page * PAGE_BYTES, PAGE_BYTES));
+      pages = grown;
+    }
+
+    @Override
+    void fill(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      page(slot).write(base(slot), shipId, kinematic, identity, timestamp, version);
+    }
+
+    @Override
+    void insert(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long seq = p.sequence.beginWrite(i);
+      try {
+        p.write(base(slot), shipId, kinematic, identity, timestamp, version);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+    }
+
+    @Override
+    void clear(int slot) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long seq = p.sequence.beginWrite(i);
+      p.segment.set(ValueLayout.JAVA_INT, base(slot) + SHIP_ID, FREE);
+      p.sequence.endWrite(i, seq);
+    }
+
+    @Override
+    int shipIdAt(int slot) {
+      return page(slot).segment.get(ValueLayout.JAVA_INT, base(slot) + SHIP_ID);
+    }
+
+    @Override
+    long versionAt(int slot) {
+      MemorySegment segment = page(slot).segment;
+      long base = base(slot);
+      return Math.max(segment.get(ValueLayout.JAVA_LONG, base + KINEMATIC_VERSION),
+          segment.get(ValueLayout.JAVA_LONG, base + IDENTITY_VERSION));
+    }
+
+    @Override
+    ShipData materialize(int slot) {
+      return page(slot).materialize(slot & PAGE_MASK);
+    }
+
+    @Override
+    void copyTo(int slot, FleetSnapshot target) {
+      page(slot).copyTo(slot & PAGE_MASK, target, slot);
+    }
+
+    @Override
+    boolean updateKinematic(int slot, int shipId, KinematicDataGenerator kinematicGenerator,
+        long version, KinematicFixListener fixed) {
+      Page p = page(slot);
+      MemorySegment segment = p.segment;
+      int i = slot & PAGE_MASK;
+      long base = base(slot);
+      // Updated in place through a per-thread scratch tuple, so no object is allocated
+      double[] state = SCRATCH.get();
+      long now;
+      long written;
+      long seq = p.sequence.beginWrite(i);
+      try {
+        if (segment.get(ValueLayout.JAVA_INT, base + SHIP_ID) != shipId) {
+          return false;
+        }
+        now = clock.getAsLong();
+        p.read(base, state);
+        kinematicGenerator.advance(state, KinematicDataGenerator.elapsedSeconds(
+            segment.get(ValueLayout.JAVA_LONG, base + LAST_UPDATE), now));
+        segment.set(ValueLayout.JAVA_DOUBLE, base + SPEED, state[KinematicDataGenerator.SPEED]);
+        segment.set(ValueLayout.JAVA_DOUBLE, base + COURSE, state[KinematicDataGenerator.COURSE]);
+        segment.set(ValueLayout.JAVA_DOUBLE, base + LATITUDE,
+            state[KinematicDataGenerator.LATITUDE]);
+        segment.set(ValueLayout.JAVA_DOUBLE, base + LONGITUDE,
+            state[KinematicDataGenerator.LONGITUDE]);
+        segment.set(ValueLayout.JAVA_LONG, base + LAST_UPDATE, now);
+        written = p.raiseVersion(base + KINEMATIC_VERSION, version);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+      fixed.fixed(shipId, written, now, state[KinematicDataGenerator.SPEED],
+          state[KinematicDataGenerator.COURSE], state[KinematicDataGenerator.LATITUDE],
+          state[KinematicDataGenerator.LONGITUDE]);
+      return true;
+    }
+
+    @Override
+    boolean updateIdentity(int slot, int shipId, IdentityData identity, long version) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long base = base(slot);
+      long seq = p.sequence.beginWrite(i);
+      try {
+        if (p.segment.get(ValueLayout.JAVA_INT, base + SHIP_ID) != shipId) {
+          return false;
+        }
+        p.writeIdentity(base, identity);
+        p.raiseVersion(base + IDENTITY_VERSION, version);
+      } finally {
+        p.sequence.endWrite(i, seq);
+      }
+      return true;
+    }
+
+    @Override
+    long read(int slot, int shipId, double[] state) {
+      Page p = page(slot);
+      int i = slot & PAGE_MASK;
+      long base = base(slot);
+      while (true) {
+        long seq = p.sequence.beginRead(i);
+        int current = p.segment.get(ValueLayout.JAVA_INT, base + SHIP_ID);
+        p.read(base, state);
+        long fixTime = p.segment.get(ValueLayout.JAVA_LONG, base + LAST_UPDATE);
+        if (p.sequence.validate(i, seq)) {
+          return current == shipId ? fixTime : FleetStore.ABSENT;
+        }
+      }
+    }
+
+    @Override
+    void addStorageBytes(MemoryFootprint footprint) {
+      int pageCount = pages.length;
+      // Records live off the heap; sequence counters stay on it
+      footprint.addOffHeap(MemoryFootprint.SHIPS, pageCount * PAGE_BYTES);
+      footprint.add(MemoryFootprint.SHIPS, MemoryFootprint.referenceArrayBytes(pageCount)
+          + pageCount * MemoryFootprint.arrayBytes(PAGE_SIZE, Long.BYTES));
+    }
+  }
+
+  /**
+   * {@link SlotFleet#PAGE_SIZE} consecutive records; {@code base} arguments are byte offsets of a
+   * record within the page.
+   */
+  private static final class Page {
+    final MemorySegment segment;
+    final SequenceLocks sequence = new SequenceLocks(SlotFleet.PAGE_SIZE);
+
+    Page(MemorySegment segment) {
+      this.segment = segment;
+    }
+
+    void write(long base, int shipId, KinematicData kinematic, IdentityData identity,
+        long timestamp, long version) {
+      segment.set(ValueLayout.JAVA_INT, base + SHIP_ID, shipId);
+      segment.set(ValueLayout.JAVA_DOUBLE, base + SPEED, kinematic.getSpeed());
+      segment.set(ValueLayout.JAVA_DOUBLE, base + COURSE, kinematic.getCourse());
+      segment.set(ValueLayout.JAVA_DOUBLE, base + LATITUDE, kinematic.getLatitude());
+      segment.set(ValueLayout.JAVA_DOUBLE, base + LONGITUDE, kinematic.getLongitude());
+      segment.set(ValueLayout.JAVA_LONG, base + LAST_UPDATE, timestamp);
+      segment.set(ValueLayout.JAVA_LONG, base + KINEMATIC_VERSION, version);
+      segment.set(ValueLayout.JAVA_LONG, base + IDENTITY_VERSION, version);
+      writeIdentity(base, identity);
+    }
+
+    void read(long base, double[] state) {
+      state[KinematicDataGenerator.SPEED] = segment.get(ValueLayout.JAVA_DOUBLE, base + SPEED);
+      state[KinematicDataGenerator.COURSE] = segment.get(ValueLayout.JAVA_DOUBLE, base + COURSE);
+      state[KinematicDataGenerator.LATITUDE] =
+          segment.get(ValueLayout.JAVA_DOUBLE, base + LATITUDE);
+      state[KinematicDataGenerator.LONGITUDE] =
+          segment.get(ValueLayout.JAVA_DOUBLE, base + LONGITUDE);
+    }
+
+    long raiseVersion(long offset, long version) {
+      long current = segment.get(ValueLayout.JAVA_LONG, offset);
+      if (version <= current) {
+        return current;
+      }
+      segment.set(ValueLayout.JAVA_LONG, offset, version);
+      return version;
+    }
+
+    void writeIdentity(long base, IdentityData identity) {
+      segment.set(ValueLayout.JAVA_LONG, base + CALL_SIGN, identity.getPackedCallSign());
+      segment.set(ValueLayout.JAVA_INT, base + IMO, identity.getImoNumber());
+      segment.set(ValueLayout.JAVA_INT, base + MMSI, identity.getMmsiNumber());
+      segment.set(ValueLayout.JAVA_INT, base + SHIP_NAME_CODE, identity.getShipNameCode());
+      segment.set(ValueLayout.JAVA_INT, base + SHIP_NAME_NUMBER, identity.getShipNameNumber());
+      segment.set(ValueLayout.JAVA_INT, base + SHIP_TYPE_CODE, identity.getShipTypeCode());
+    }
+
+    IdentityData readIdentity(long base) {
+      return new IdentityData(
+          segment.get(ValueLayout.JAVA_INT, base + IMO),
+          segment.get(ValueLayout.JAVA_INT, base + MMSI),
+          segment.get(ValueLayout.JAVA_LONG, base + CALL_SIGN),
+          segment.get(ValueLayout.JAVA_INT, base + SHIP_NAME_CODE),
+          segment.get(ValueLayout.JAVA_INT, base + SHIP_NAME_NUMBER),
+          segment.get(ValueLayout.JAVA_INT, base + SHIP_TYPE_CODE));
+    }
+
+    void copyTo(int i, FleetSnapshot target, int index) {
+      long base = i * RECORD_SIZE;
+      while (true) {
+        long seq = sequence.beginRead(i);
+        target.shipId[index] = segment.get(ValueLayout.JAVA_INT, base + SHIP_ID);
+        target.speed[index] = segment.get(ValueLayout.JAVA_DOUBLE, base + SPEED);
+        target.course[index] = segment.get(ValueLayout.JAVA_DOUBLE, base + COURSE);
+        target.latitude[index] = segment.get(ValueLayout.JAVA_DOUBLE, base + LATITUDE);
+        target.longitude[index] = segment.get(ValueLayout.JAVA_DOUBLE, base + LONGITUDE);
+        target.lastUpdate[index] = segment.get(ValueLayout.JAVA_LONG, base + LAST_UPDATE);
+        target.kinematicVersion[index] =
+            segment.get(ValueLayout.JAVA_LONG, base + KINEMATIC_VERSION);
+        target.identityVersion[index] =
+            segment.get(ValueLayout.JAVA_LONG, base + IDENTITY_VERSION);
+        target.imo[index] = segment.get(ValueLayout.JAVA_INT, base + IMO);
+        target.mmsi[index] = segment.get(ValueLayout.JAVA_INT, base + MMSI);
+        target.callSign[index] = segment.get(ValueLayout.JAVA_LONG, base + CALL_SIGN);
+        target.shipNameCode[index] = segment.get(ValueLayout.JAVA_INT, base + SHIP_NAME_CODE);
+        target.shipNameNumber[index] = segment.get(ValueLayout.JAVA_INT, base + SHIP_NAME_NUMBER);
+        target.shipTypeCode[index] = segment.get(ValueLayout.JAVA_INT, base + SHIP_TYPE_CODE);
+        if (sequence.validate(i, seq)) {
+          return;
+        }
+      }
+    }
+
+    ShipData materialize(int i) {
+      long base = i * RECORD_SIZE;
+      while (true) {
+        long seq = sequence.beginRead(i);
+        int shipId = segment.get(ValueLayout.JAVA_INT, base + SHIP_ID);
+        double speed = segment.get(ValueLayout.JAVA_DOUBLE, base + SPEED);
+        double course = segment.get(ValueLayout.JAVA_DOUBLE, base + COURSE);
+        double latitude = segment.get(ValueLayout.JAVA_DOUBLE, base + LATITUDE);
+        double longitude = segment.get(ValueLayout.JAVA_DOUBLE, base + LONGITUDE);
+        long timestamp = segment.get(ValueLayout.JAVA_LONG, base + LAST_UPDATE);
+        long kinematicVersion = segment.get(ValueLayout.JAVA_LONG, base + KINEMATIC_VERSION);
+        long identityVersion = segment.get(ValueLayout.JAVA_LONG, base + IDENTITY_VERSION);
+        IdentityData identityValue = readIdentity(base);
+        if (sequence.validate(i, seq)) {
+          if (shipId == SlotFleet.FREE) {
+            return null;
+          }
+          return new ShipData(shipId, new KinematicData(speed, course, latitude, longitude),
+              identityValue, timestamp, kinematicVersion, identityVersion);
+        }
+      }
+    }
+  }
+}
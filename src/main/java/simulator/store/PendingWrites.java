@@ -0,0 +1,65 @@
+package simulator.store;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions taken from the fleet epoch by writes that have not landed yet.
+ *
+ * <p>A write takes its version before it writes, so a scan that trusts the epoch can pass a slot
+ * whose write holds a lower version but is still in progress, and never look for it again. A
+ * writer therefore announces a lower bound of its version in a cell before taking it, and clears
+ * the cell once the write has landed; a batch sharing one version clears it after its last slot.
+ * Every write with a version up to {@link #settledEpoch()} has then landed.
+ */
+final class PendingWrites {
+  private static final int CELLS = 64;
+  // Cells a cache line apart, so writers on different cells do not contend
+  private static final int STRIDE = 8;
+  private static final long FREE = 0;
+
+  private final AtomicLong epoch;
+  private final AtomicLongArray cells = new AtomicLongArray(CELLS * STRIDE);
+
+  PendingWrites(AtomicLong epoch) {
+    this.epoch = epoch;
+  }
+
+  /**
+   * Announces a write about to take its version from the epoch, which it must do afterwards;
+   * returns the cell to pass to {@link #end(int)} once the write has landed.
+   */
+  int begin() {
+    // The version taken next is higher than any epoch read now
+    long lowerBound = epoch.get() + 1;
+    int start = (int) Thread.currentThread().threadId();
+    while (true) {
+      for (int k = 0; k < CELLS; k++) {
+        int cell = ((start + k) & (CELLS - 1)) * STRIDE;
+        if (cells.get(cell) == FREE && cells.compareAndSet(cell, FREE, lowerBound)) {
+          return cell;
+        }
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  void end(int cell) {
+    cells.set(cell, FREE);
+  }
+
+  /**
+   * Highest epoch up to which every announced write has landed.
+   */
+  long settledEpoch() {
+    // Read before the cells: a write holding a version up to it announced itself before taking it
+    long settled = epoch.get();
+    for (int cell = 0; cell < cells.length(); cell += STRIDE) {
+      long pending = cells.get(cell);
+      if (pending != FREE) {
+        settled = Math.min(settled, pending - 1);
+      }
+    }
+    return settled;
+  }
+}
@@ -0,0 +1,51 @@
+package simulator.store;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-slot sequence counters used as seqlocks by the primitive stores. A writer moves the counter
+ * of its slot from even to odd before touching the slot and back to even when done; a reader
+ * accepts what it read only if the counter was even and unchanged across the read.
+ */
+final class SequenceLocks {
+  private final AtomicLongArray sequence;
+
+  SequenceLocks(int size) {
+    this.sequence = new AtomicLongArray(size);
+  }
+
+  long beginWrite(int slot) {
+    while (true) {
+      long seq = sequence.get(slot);
+      if ((seq & 1L) == 0 && sequence.compareAndSet(slot, seq, seq + 1)) {
+        // Keep the slot stores below the odd sequence value
+        VarHandle.storeStoreFence();
+        return seq;
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  void endWrite(int slot, long seq) {
+    sequence.set(slot, seq + 2);
+  }
+
+  /**
+   * Returns an even sequence value to validate a read against, spinning while a write is in
+   * progress.
+   */
+  long beginRead(int slot) {
+    long seq = sequence.get(slot);
+    while ((seq & 1L) != 0) {
+      Thread.onSpinWait();
+      seq = sequence.get(slot);
+    }
+    return seq;
+  }
+
+  boolean validate(int slot, long seq) {
+    VarHandle.loadLoadFence();
+    return sequence.get(slot) == seq;
+  }
+}
@@ -0,0 +1,260 @@
+package simulator.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Concurrent primitive map from ship id to store slot.
+ *
+ * <p>Ids inside the dense window {@code [base, base + dense.length)} resolve with a single array
+ * load, which covers the contiguous 1..N fleets built by {@code initializeShips}. Ids outside the
+ * window go to an open-addressing table with linear probing. Lookups are lock-free; mutations are
+ * serialized on the index and published with release stores, and a resized table is fully built
+ * before it replaces the old one.
+ */
+public final class ShipIndex {
+  public static final int ABSENT = -1;
+
+  private static final int EMPTY_KEY = Integer.MIN_VALUE;
+  private static final int MIN_SPARSE_CAPACITY = 16;
+  private static final int MIN_DENSE_GROWTH = 1024;
+  private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+  private volatile Table table;
+  private volatile int size;
+
+  public ShipIndex() {
+    this.table = new Table(0, new int[0], emptyKeys(MIN_SPARSE_CAPACITY),
+        new int[MIN_SPARSE_CAPACITY]);
+  }
+
+  /**
+   * Index mapping ids {@code firstId .. firstId + count - 1} to slots {@code 0 .. count - 1}.
+   */
+  public static ShipIndex contiguous(int firstId, int count) {
+    ShipIndex index = new ShipIndex();
+    int[] dense = new int[count];
+    for (int i = 0; i < count; i++) {
+      dense[i] = i;
+    }
+    index.table = new Table(firstId, dense, emptyKeys(MIN_SPARSE_CAPACITY),
+        new int[MIN_SPARSE_CAPACITY]);
+    index.size = count;
+    return index;
+  }
+
+  /**
+   * Returns the slot of {@code shipId}, or {@link #ABSENT}.
+   */
+  public int slotOf(int shipId) {
+    Table t = table;
+    int offset = shipId - t.base;
+    if (offset >= 0 && offset < t.dense.length) {
+      return (int) INT_ARRAY.getAcquire(t.dense, offset);
+    }
+    return t.sparseGet(shipId);
+  }
+
+  /**
+   * Resolves {@code shipIds[0 .. count - 1]} into {@code slots} against one version of the
+   * table, with {@link #ABSENT} for unknown ids.
+   */
+  public void slotsOf(int[] shipIds, int count, int[] slots) {
+    Table t = table;
+    int base = t.base;
+    int[] dense = t.dense;
+    for (int i = 0; i < count; i++) {
+      int offset = shipIds[i] - base;
+      slots[i] = offset >= 0 && offset < dense.length
+          ? (int) INT_ARRAY.getAcquire(dense, offset) : t.sparseGet(shipIds[i]);
+    }
+  }
+
+  public boolean contains(int shipId) {
+    return slotOf(shipId) != ABSENT;
+  }
+
+  /**
+   * Maps {@code shipId} to {@code slot}, returning the previous slot or {@link #ABSENT}.
+   */
+  public synchronized int put(int shipId, int slot) {
+    if (shipId == EMPTY_KEY) {
+      throw new IllegalArgumentException("Unsupported ship id: " + shipId);
+    }
+    if (slot < 0) {
+      throw new IllegalArgumentException("Invalid slot: " + slot);
+    }
+
+    Table t = table;
+    int offset = shipId - t.base;
+    if (offset < 0 || offset >= t.dense.length) {
+      if (t.canGrowDenseTo(shipId)) {
+        t = growDense(t, shipId);
+        offset = shipId - t.base;
+      } else {
+        int previous = t.sparsePut(shipId, slot);
+        if (previous == ABSENT) {
+          size++;
+          if (t.sparseUsed * 4 >= t.keys.length * 3) {
+            table = t.rehashSparse();
+          }
+        }
+        return previous;
+      }
+    }
+
+    int previous = t.dense[offset];
+    INT_ARRAY.setRelease(t.dense, offset, slot);
+    if (previous == ABSENT) {
+      size++;
+    }
+    return previous;
+  }
+
+  /**
+   * Removes {@code shipId}, returning its slot or {@link #ABSENT}.
+   */
+  public synchronized int remove(int shipId) {
+    Table t = table;
+    int offset = shipId - t.base;
+    int previous;
+    if (offset >= 0 && offset < t.dense.length) {
+      previous = t.dense[offset];
+      INT_ARRAY.setRelease(t.dense, offset, ABSENT);
+    } else {
+      // Keys stay behind as tombstones until the next rehash
+      previous = t.sparsePut(shipId, ABSENT);
+    }
+    if (previous != ABSENT) {
+      size--;
+    }
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Estimated heap taken by the dense window and the sparse table.
+   */
+  public long getMemoryBytes() {
+    Table t = table;
+    return MemoryFootprint.arrayBytes(t.dense.length, Integer.BYTES)
+        + MemoryFootprint.arrayBytes(t.keys.length, Integer.BYTES) * 2;
+  }
+
+  private Table growDense(Table t, int shipId) {
+    int base = t.dense.length == 0 ? shipId : t.base;
+    int needed = shipId - base + 1;
+    int capacity = Math.max(needed, Math.max(t.dense.length * 2, MIN_DENSE_GROWTH));
+    int[] dense = Arrays.copyOf(t.dense, capacity);
+    Arrays.fill(dense, t.dense.length, capacity, ABSENT);
+    // Sparse entries now covered by the window move into it
+    Table grown = t.rehashSparse(base, dense);
+    table = grown;
+    return grown;
+  }
+
+  private static int[] emptyKeys(int capacity) {
+    int[] keys = new int[capacity];
+    Arrays.fill(keys, EMPTY_KEY);
+    return keys;
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static final class Table {
+    final int base;
+    final int[] dense;
+    final int[] keys;
+    final int[] values;
+    int sparseUsed;
+
+    Table(int base, int[] dense, int[] keys, int[] values) {
+      this.base = base;
+      this.dense = dense;
+      this.keys = keys;
+      this.values = values;
+    }
+
+    boolean canGrowDenseTo(int shipId) {
+      if (dense.length == 0) {
+        return true;
+      }
+      // Only extend upwards, and only while the window stays reasonably packed
+      long offset = (long) shipId - base;
+      return offset >= dense.length
+          && offset < Math.max((long) dense.length * 2, MIN_DENSE_GROWTH);
+    }
+
+    int sparseGet(int key) {
+      int mask = keys.length - 1;
+      for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+        int k = (int) INT_ARRAY.getAcquire(keys, i);
+        if (k == key) {
+          return (int) INT_ARRAY.getAcquire(values, i);
+        }
+        if (k == EMPTY_KEY) {
+          return ABSENT;
+        }
+      }
+    }
+
+    int sparsePut(int key, int value) {
+      int mask = keys.length - 1;
+      for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+        int k = keys[i];
+        if (k == key) {
+          int previous = values[i];
+          INT_ARRAY.setRelease(values, i, value);
+          return previous;
+        }
+        if (k == EMPTY_KEY) {
+          if (value == ABSENT) {
+            return ABSENT;
+          }
+          // Value first, so a reader that sees the key also sees its slot
+          values[i] = value;
+          INT_ARRAY.setRelease(keys, i, key);
+          sparseUsed++;
+          return ABSENT;
+        }
+      }
+    }
+
+    Table rehashSparse() {
+      return rehashSparse(base, dense);
+    }
+
+    Table rehashSparse(int newBase, int[] newDense) {
+      int live = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != EMPTY_KEY && values[i] != ABSENT) {
+          live++;
+        }
+      }
+      int capacity = MIN_SPARSE_CAPACITY;
+      while (capacity < live * 2 + 2) {
+        capacity <<= 1;
+      }
+      Table rehashed = new Table(newBase, newDense, emptyKeys(capacity), new int[capacity]);
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == EMPTY_KEY || values[i] == ABSENT) {
+          continue;
+        }
+        long offset = (long) keys[i] - newBase;
+        if (offset >= 0 && offset < newDense.length) {
+          newDense[(int) offset] = values[i];
+        } else {
+          rehashed.sparsePut(keys[i], values[i]);
+        }
+      }
+      return rehashed;
+    }
+  }
+}
@@ -0,0 +1,401 @@
+package simulator.store;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import simulator.data.IdentityData;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * One generation of fleet state, shared by the store implementations: the ship id to slot index,
+ * slot and id recycling, the fleet epoch and the snapshot protocol. Subclasses own the per-slot
+ * storage, which is organized in pages of {@value #PAGE_SIZE} slots so the fleet can grow without
+ * copying or moving ships.
+ *
+ * <p>Ships join and leave through {@link #add} and {@link #remove}, which are serialized on the
+ * fleet. A departing ship's slot goes onto a free list and is handed to the next arrival, so
+ * churn reuses the occupied range instead of growing it. Its id is queued behind every id
+ * released before it, which keeps a stale id held by a consumer from naming a new ship for as
+ * long as possible.
+ */
+abstract class SlotFleet {
+  static final int PAGE_SHIFT = SnapshotCoordinator.PAGE_SHIFT;
+  static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+  static final int PAGE_MASK = PAGE_SIZE - 1;
+  static final long INITIAL_EPOCH = 1;
+  /** Ship id stored in a free slot. */
+  static final int FREE = 0;
+
+  private static final ThreadLocal<int[]> BATCH_SLOTS = ThreadLocal.withInitial(() -> new int[0]);
+
+  final ShipIndex index;
+  final AtomicLong epoch = new AtomicLong(INITIAL_EPOCH);
+  final SnapshotCoordinator snapshots = new SnapshotCoordinator(this);
+  final PendingWrites pendingWrites = new PendingWrites(epoch);
+  // Time in epoch milliseconds that new fixes are stamped with, set by the owning store
+  volatile LongSupplier clock = System::currentTimeMillis;
+
+  // Membership state below is only written with the fleet lock held
+  private int[] freeSlots = new int[0];
+  private int freeSlotCount;
+  private int[] releasedIds = new int[0];
+  private int releasedHead;
+  private int releasedCount;
+  private volatile int nextShipId;
+  private volatile int slotCount;
+  private volatile int size;
+
+  /**
+   * Fleet whose ids {@code 1..numberOfShips} occupy slots {@code 0..numberOfShips - 1}; the
+   * subclass must have storage for them and fill them before the fleet is published.
+   */
+  SlotFleet(int numberOfShips) {
+    this.index = ShipIndex.contiguous(1, numberOfShips);
+    this.nextShipId = numberOfShips + 1;
+    this.slotCount = numberOfShips;
+    this.size = numberOfShips;
+  }
+
+  static int pageCount(int slots) {
+    return (slots + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+  }
+
+  // Per-slot storage
+
+  /**
+   * Makes sure the page holding {@code slot} exists. Called with the fleet lock held, for at
+   * most one page past the current last page.
+   */
+  abstract void ensurePage(int slot);
+
+  /**
+   * Writes a ship into a slot no reader can observe yet, during initialization.
+   */
+  abstract void fill(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+      long timestamp, long version);
+
+  /**
+   * Writes a ship into a free slot, atomically with respect to readers.
+   */
+  abstract void insert(int slot, int shipId, KinematicData kinematic, IdentityData identity,
+      long timestamp, long version);
+
+  /**
+   * Marks an occupied slot free, atomically with respect to readers and writers.
+   */
+  abstract void clear(int slot);
+
+  /**
+   * Racy read of the slot's ship id, {@link #FREE} when unoccupied; for filtering only.
+   */
+  abstract int shipIdAt(int slot);
+
+  /**
+   * Racy read of the slot's highest version; for filtering only.
+   */
+  abstract long versionAt(int slot);
+
+  /**
+   * Consistent image of the ship in {@code slot}, or null if the slot is free.
+   */
+  abstract ShipData materialize(int slot);
+
+  /**
+   * Copies a consistent image of {@code slot} into {@code target} at index {@code slot}, with
+   * ship id {@link #FREE} if the slot is free.
+   */
+  abstract void copyTo(int slot, FleetSnapshot target);
+
+  /**
+   * Advances the kinematic state of the ship in {@code slot} if it is still {@code shipId} and
+   * reports the written state to {@code fixed} after releasing the slot.
+   */
+  abstract boolean updateKinematic(int slot, int shipId, KinematicDataGenerator kinematicGenerator,
+      long version, KinematicFixListener fixed);
+
+  /**
+   * Advances the kinematic state of the ships in {@code slots[0 .. count - 1]} that are still
+   * {@code shipIds[i]}, reporting each to {@code fixed}; slots may repeat and may be
+   * {@link ShipIndex#ABSENT}. Stores that can advance many ships at once override this.
+   */
+  int updateKinematicSlots(int[] slots, int[] shipIds, int count,
+      KinematicDataGenerator kinematicGenerator, long version, KinematicFixListener fixed) {
+    int done = 0;
+    for (int i = 0; i < count; i++) {
+      int slot = slots[i];
+      if (slot == ShipIndex.ABSENT) {
+        continue;
+      }
+      snapshots.beforeWrite(slot);
+      if (updateKinematic(slot, shipIds[i], kinematicGenerator, version, fixed)) {
+        done++;
+      }
+    }
+    return done;
+  }
+
+  /**
+   * Replaces the identity of the ship in {@code slot} if it is still {@code shipId}.
+   */
+  abstract boolean updateIdentity(int slot, int shipId, IdentityData identity, long version);
+
+  /**
+   * Copies the kinematic tuple of the ship in {@code slot} if it is still {@code shipId} and
+   * returns the time it was fixed, or {@link FleetStore#ABSENT} otherwise.
+   */
+  abstract long read(int slot, int shipId, double[] state);
+
+  /**
+   * Adds the per-slot storage, including pages not yet occupied, to {@code footprint}.
+   */
+  abstract void addStorageBytes(MemoryFootprint footprint);
+
+  // Operations by ship id
+
+  ShipData get(int shipId) {
+    int slot = index.slotOf(shipId);
+    if (slot == ShipIndex.ABSENT) {
+      return null;
+    }
+    ShipData ship = materialize(slot);
+    // The slot may have been freed or recycled since the lookup
+    return ship != null && ship.getShipId() == shipId ? ship : null;
+  }
+
+  boolean updateKinematicData(int shipId, KinematicDataGenerator kinematicGenerator,
+      KinematicFixListener fixed) {
+    int slot = index.slotOf(shipId);
+    if (slot == ShipIndex.ABSENT) {
+      return false;
+    }
+    int pending = pendingWrites.begin();
+    try {
+      long version = epoch.incrementAndGet();
+      snapshots.beforeWrite(slot);
+      return updateKinematic(slot, shipId, kinematicGenerator, version, fixed);
+    } finally {
+      pendingWrites.end(pending);
+    }
+  }
+
+  boolean updateIdentityData(int shipId, IdentityDataGenerator identityGenerator) {
+    int slot = index.slotOf(shipId);
+    if (slot == ShipIndex.ABSENT) {
+      return false;
+    }
+    IdentityData identity = identityGenerator.generateIdentityData(shipId);
+    int pending = pendingWrites.begin();
+    try {
+      long version = epoch.incrementAndGet();
+      snapshots.beforeWrite(slot);
+      return updateIdentity(slot, shipId, identity, version);
+    } finally {
+      pendingWrites.end(pending);
+    }
+  }
+
+  int updateKinematicBatch(int[] shipIds, int count, KinematicDataGenerator kinematicGenerator,
+      KinematicFixListener fixed) {
+    int[] slots = resolve(shipIds, count);
+    // The whole batch shares one version, pending until its last slot is written
+    int pending = pendingWrites.begin();
+    try {
+      long version = epoch.incrementAndGet();
+      return updateKinematicSlots(slots, shipIds, count, kinematicGenerator, version, fixed);
+    } finally {
+      pendingWrites.end(pending);
+    }
+  }
+
+  int updateIdentityBatch(int[] shipIds, int count, IdentityDataGenerator identityGenerator,
+      IntConsumer updated) {
+    int[] slots = resolve(shipIds, count);
+    int pending = pendingWrites.begin();
+    try {
+      long version = epoch.incrementAndGet();
+      int done = 0;
+      for (int i = 0; i < count; i++) {
+        int slot = slots[i];
+        if (slot == ShipIndex.ABSENT) {
+          continue;
+        }
+        IdentityData identity = identityGenerator.generateIdentityData(shipIds[i]);
+        snapshots.beforeWrite(slot);
+        if (updateIdentity(slot, shipIds[i], identity, version)) {
+          done++;
+          updated.accept(shipIds[i]);
+        }
+      }
+      return done;
+    } finally {
+      pendingWrites.end(pending);
+    }
+  }
+
+  /**
+   * Slots of the batch's ships, in a per-thread buffer valid until the thread's next batch.
+   */
+  private int[] resolve(int[] shipIds, int count) {
+    int[] slots = BATCH_SLOTS.get();
+    if (slots.length < count) {
+      slots = new int[Math.max(count, slots.length * 2)];
+      BATCH_SLOTS.set(slots);
+    }
+    index.slotsOf(shipIds, count, slots);
+    return slots;
+  }
+
+  long readKinematicFix(int shipId, double[] state) {
+    int slot = index.slotOf(shipId);
+    return slot == ShipIndex.ABSENT ? FleetStore.ABSENT : read(slot, shipId, state);
+  }
+
+  // Membership
+
+  synchronized int add(KinematicDataGenerator kinematicGenerator,
+      IdentityDataGenerator identityGenerator) {
+    int shipId = claimShipId();
+    int slot = freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount;
+    ensurePage(slot);
+
+    KinematicData kinematic = kinematicGenerator.generateInitialData();
+    IdentityData identity = identityGenerator.generateIdentityData(shipId);
+    int pending = pendingWrites.begin();
+    try {
+      long version = epoch.incrementAndGet();
+      snapshots.beforeWrite(slot);
+      insert(slot, shipId, kinematic, identity, clock.getAsLong(), version);
+    } finally {
+      pendingWrites.end(pending);
+    }
+
+    if (slot == slotCount) {
+      slotCount = slot + 1;
+    }
+    index.put(shipId, slot);
+    size = size + 1;
+    return shipId;
+  }
+
+  synchronized boolean remove(int shipId) {
+    int slot = index.slotOf(shipId);
+    if (slot == ShipIndex.ABSENT) {
+      return false;
+    }
+    // Stamped like an update so snapshots taken before the removal still contain the ship
+    epoch.incrementAndGet();
+    snapshots.beforeWrite(slot);
+    // Cleared before unmapping: writers that already resolved the slot see it is no longer theirs
+    clear(slot);
+    index.remove(shipId);
+
+    if (freeSlotCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeSlotCount * 2));
+    }
+    freeSlots[freeSlotCount++] = slot;
+    releaseShipId(shipId);
+    size = size - 1;
+    return true;
+  }
+
+  private int claimShipId() {
+    if (releasedCount > 0) {
+      int shipId = releasedIds[releasedHead];
+      releasedHead = (releasedHead + 1) % releasedIds.length;
+      releasedCount--;
+      return shipId;
+    }
+    if (nextShipId == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Ship ids exhausted");
+    }
+    int shipId = nextShipId;
+    nextShipId = shipId + 1;
+    return shipId;
+  }
+
+  private void releaseShipId(int shipId) {
+    if (releasedCount == releasedIds.length) {
+      int[] grown = new int[Math.max(16, releasedCount * 2)];
+      for (int i = 0; i < releasedCount; i++) {
+        grown[i] = releasedIds[(releasedHead + i) % releasedIds.length];
+      }
+      releasedIds = grown;
+      releasedHead = 0;
+    }
+    releasedIds[(releasedHead + releasedCount) % releasedIds.length] = shipId;
+    releasedCount++;
+  }
+
+  int size() { return size; }
+  int slotCount() { return slotCount; }
+  int shipIdBound() { return nextShipId; }
+
+  // Whole-fleet reads
+
+  /**
+   * Weakly consistent view of the occupied slots: a ship removed after the call reads as null
+   * and a recycled slot shows its new ship.
+   */
+  List<ShipData> view() {
+    int slots = slotCount;
+    if (size == slots) {
+      return new SlotShipList(slots, this::materialize);
+    }
+    int[] occupied = new int[slots];
+    int count = 0;
+    for (int slot = 0; slot < slots; slot++) {
+      if (shipIdAt(slot) != FREE) {
+        occupied[count++] = slot;
+      }
+    }
+    return new SlotShipList(count, i -> materialize(occupied[i]));
+  }
+
+  Spliterator<ShipData> spliterator() {
+    return new SlotSpliterator(this);
+  }
+
+  /**
+   * Delivers the ships changed after {@code watermark} and returns the watermark for the next
+   * call: the epoch up to which every write had landed before the scan started, so a write
+   * still in progress is picked up next time.
+   */
+  long forEachChangedSince(long watermark, Consumer<ShipData> action) {
+    // A writer may announce a lower bound below an earlier result; that earlier scan saw
+    // everything up to it, so the watermark never moves back
+    long settled = Math.max(watermark, pendingWrites.settledEpoch());
+    int slots = slotCount;
+    for (int slot = 0; slot < slots; slot++) {
+      // Cheap pre-filter on the version fields; materialize re-reads under the slot's lock
+      if (versionAt(slot) > watermark) {
+        ShipData ship = materialize(slot);
+        if (ship != null) {
+          action.accept(ship);
+        }
+      }
+    }
+    return settled;
+  }
+
+  FleetSnapshot snapshot() {
+    return snapshots.take();
+  }
+
+  MemoryFootprint memoryFootprint() {
+    MemoryFootprint footprint = new MemoryFootprint(size);
+    addStorageBytes(footprint);
+    long recycling;
+    synchronized (this) {
+      recycling = MemoryFootprint.arrayBytes(freeSlots.length, Integer.BYTES)
+          + MemoryFootprint.arrayBytes(releasedIds.length, Integer.BYTES);
+    }
+    return footprint.add(MemoryFootprint.INDEX, index.getMemoryBytes() + recycling);
+  }
+}
@@ -0,0 +1,148 @@
+package simulator.store;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+/**
+ * {@link FleetStore} over a {@link SlotFleet}; subclasses only choose the slot storage.
+ */
+abstract class SlotFleetStore implements FleetStore {
+  private volatile SlotFleet fleet;
+  private volatile LongSupplier clock = System::currentTimeMillis;
+
+  SlotFleetStore(SlotFleet empty) {
+    this.fleet = empty;
+  }
+
+  SlotFleet fleet() {
+    return fleet;
+  }
+
+  /**
+   * New fleet with storage for ids {@code 1..numberOfShips}, to be filled by
+   * {@link #initialize}.
+   */
+  abstract SlotFleet createFleet(int numberOfShips);
+
+  @Override
+  public void initialize(int numberOfShips, KinematicDataGenerator kinematicGenerator,
+      IdentityDataGenerator identityGenerator, boolean parallel) {
+    SlotFleet next = createFleet(numberOfShips);
+    next.clock = clock;
+    long now = clock.getAsLong();
+
+    BulkInitializer.fill(numberOfShips, parallel, (chunk, fromSlot, toSlot) -> {
+      KinematicDataGenerator kinematic = kinematicGenerator.split(chunk);
+      IdentityDataGenerator identity = identityGenerator.split(chunk);
+      for (int slot = fromSlot; slot < toSlot; slot++) {
+        int shipId = slot + 1;
+        next.fill(slot, shipId, kinematic.generateInitialData(),
+            identity.generateIdentityData(shipId), now, SlotFleet.INITIAL_EPOCH);
+      }
+    });
+
+    // Publish the fully built fleet in one volatile write
+    fleet = next;
+  }
+
+  @Override
+  public void setClock(LongSupplier clock) {
+    this.clock = clock;
+    fleet.clock = clock;
+  }
+
+  @Override
+  public ShipData getShip(int shipId) {
+    return fleet.get(shipId);
+  }
+
+  @Override
+  public boolean updateKinematicData(int shipId, KinematicDataGenerator kinematicGenerator,
+      KinematicFixListener fixed) {
+    return fleet.updateKinematicData(shipId, kinematicGenerator, fixed);
+  }
+
+  @Override
+  public boolean updateIdentityData(int shipId, IdentityDataGenerator identityGenerator) {
+    return fleet.updateIdentityData(shipId, identityGenerator);
+  }
+
+  @Override
+  public int updateKinematicBatch(int[] shipIds, int count,
+      KinematicDataGenerator kinematicGenerator, KinematicFixListener fixed) {
+    return fleet.updateKinematicBatch(shipIds, count, kinematicGenerator, fixed);
+  }
+
+  @Override
+  public int updateIdentityBatch(int[] shipIds, int count,
+      IdentityDataGenerator identityGenerator, IntConsumer updated) {
+    return fleet.updateIdentityBatch(shipIds, count, identityGenerator, updated);
+  }
+
+  @Override
+  public boolean readKinematicData(int shipId, double[] state) {
+    return fleet.readKinematicFix(shipId, state) != ABSENT;
+  }
+
+  @Override
+  public long readKinematicFix(int shipId, double[] state) {
+    return fleet.readKinematicFix(shipId, state);
+  }
+
+  @Override
+  public int addShip(KinematicDataGenerator kinematicGenerator,
+      IdentityDataGenerator identityGenerator) {
+    return fleet.add(kinematicGenerator, identityGenerator);
+  }
+
+  @Override
+  public boolean removeShip(int shipId) {
+    return fleet.remove(shipId);
+  }
+
+  @Override
+  public List<ShipData> getAllShips() {
+    return fleet.view();
+  }
+
+  @Override
+  public Spliterator<ShipData> spliterator() {
+    return fleet.spliterator();
+  }
+
+  @Override
+  public int size() {
+    return fleet.size();
+  }
+
+  @Override
+  public int getShipIdBound() {
+    return fleet.shipIdBound();
+  }
+
+  @Override
+  public long getFleetEpoch() {
+    return fleet.epoch.get();
+  }
+
+  @Override
+  public long forEachChangedSince(long watermark, Consumer<ShipData> action) {
+    return fleet.forEachChangedSince(watermark, action);
+  }
+
+  @Override
+  public FleetSnapshot snapshot() {
+    return fleet.snapshot();
+  }
+
+  @Override
+  public MemoryFootprint getMemoryFootprint() {
+    return fleet.memoryFootprint();
+  }
+}
@@ -0,0 +1,32 @@
+package simulator.store;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+import simulator.data.ShipData;
+
+/**
+ * Read-only list over store slots that materializes a {@link ShipData} on every {@code get}.
+ */
+final class SlotShipList extends AbstractList<ShipData> implements RandomAccess {
+  private final int size;
+  private final IntFunction<ShipData> materializer;
+
+  SlotShipList(int size, IntFunction<ShipData> materializer) {
+    this.size = size;
+    this.materializer = materializer;
+  }
+
+  @Override
+  public ShipData get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return materializer.apply(index);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,82 @@
+package simulator.store;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import simulator.data.ShipData;
+
+/**
+ * Spliterator over a range of {@link SlotFleet} slots that materializes the occupied ones.
+ *
+ * <p>Splits halve the range on page boundaries, so parallel tasks never share a page. The range
+ * is fixed when the spliterator is created: ships added to later slots are not visited, and a
+ * slot freed or recycled while the traversal runs is skipped or shows its new ship, as with
+ * {@link SlotFleet#view()}. The size is therefore an estimate, scaled by the occupancy at
+ * creation.
+ */
+final class SlotSpliterator implements Spliterator<ShipData> {
+  private final SlotFleet fleet;
+  private final double occupancy;
+  private int origin;
+  private final int fence;
+
+  SlotSpliterator(SlotFleet fleet) {
+    this(fleet, 0, fleet.slotCount(), occupancy(fleet));
+  }
+
+  private SlotSpliterator(SlotFleet fleet, int origin, int fence, double occupancy) {
+    this.fleet = fleet;
+    this.origin = origin;
+    this.fence = fence;
+    this.occupancy = occupancy;
+  }
+
+  private static double occupancy(SlotFleet fleet) {
+    int slots = fleet.slotCount();
+    return slots == 0 ? 1 : Math.min(1, (double) fleet.size() / slots);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super ShipData> action) {
+    while (origin < fence) {
+      ShipData ship = fleet.materialize(origin++);
+      if (ship != null) {
+        action.accept(ship);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super ShipData> action) {
+    int end = fence;
+    for (int slot = origin; slot < end; slot++) {
+      ShipData ship = fleet.materialize(slot);
+      if (ship != null) {
+        action.accept(ship);
+      }
+    }
+    origin = end;
+  }
+
+  @Override
+  public Spliterator<ShipData> trySplit() {
+    int mid = ((origin + fence) >>> 1) & ~SlotFleet.PAGE_MASK;
+    if (mid <= origin) {
+      return null;
+    }
+    SlotSpliterator prefix = new SlotSpliterator(fleet, origin, mid, occupancy);
+    origin = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return (long) Math.ceil((fence - origin) * occupancy);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | CONCURRENT;
+  }
+}
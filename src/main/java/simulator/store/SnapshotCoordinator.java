@@ -0,0 +1,100 @@
+package simulator.store;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Copy-on-write page protocol behind {@link FleetStore#snapshot()}.
+ *
+ * <p>While a snapshot is being built, slots are grouped into pages of {@value #PAGE_SIZE}. The
+ * snapshot thread copies pages one after another; a writer about to modify a page that has not
+ * been copied yet copies it first. Either way each page is copied exactly once and before any
+ * write that started after the snapshot, which yields a point-in-time image without pausing
+ * writers. Outside a snapshot the writer cost is a single volatile read.
+ *
+ * <p>Writers must take their update version from the fleet epoch before calling
+ * {@link #beforeWrite(int)}, and must not hold a slot's sequence lock while doing so. The
+ * snapshot is sized and published with the fleet's membership lock held, so every slot past its
+ * end is first written with a version above the snapshot epoch and may be ignored.
+ */
+final class SnapshotCoordinator {
+  static final int PAGE_SHIFT = 12;
+  static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+  private static final int PENDING = 0;
+  private static final int COPYING = 1;
+  private static final int COPIED = 2;
+
+  private final SlotFleet fleet;
+  private volatile Build active;
+
+  SnapshotCoordinator(SlotFleet fleet) {
+    this.fleet = fleet;
+  }
+
+  void beforeWrite(int slot) {
+    Build build = active;
+    if (build != null) {
+      build.preserve(slot >>> PAGE_SHIFT);
+    }
+  }
+
+  synchronized FleetSnapshot take() {
+    // Allocate outside the membership lock and retry in the rare case the fleet outgrew it
+    int capacity = fleet.slotCount();
+    Build build;
+    while (true) {
+      FleetSnapshot target = new FleetSnapshot(capacity);
+      synchronized (fleet) {
+        int slots = fleet.slotCount();
+        if (slots <= capacity) {
+          build = new Build(slots, target);
+          active = build;
+          // Read after publishing the build: any update stamped later sees it and preserves first
+          target.epoch = fleet.epoch.get();
+          break;
+        }
+        capacity = slots + PAGE_SIZE;
+      }
+    }
+    try {
+      for (int page = 0; page < build.pages.length(); page++) {
+        build.preserve(page);
+      }
+    } finally {
+      active = null;
+    }
+    build.target.retainOccupied(build.slots);
+    return build.target;
+  }
+
+  private final class Build {
+    final int slots;
+    final AtomicIntegerArray pages;
+    final FleetSnapshot target;
+
+    Build(int slots, FleetSnapshot target) {
+      this.slots = slots;
+      this.pages = new AtomicIntegerArray(SlotFleet.pageCount(slots));
+      this.target = target;
+    }
+
+    void preserve(int page) {
+      if (page >= pages.length() || pages.get(page) == COPIED) {
+        return;
+      }
+      if (pages.compareAndSet(page, PENDING, COPYING)) {
+        int from = page << PAGE_SHIFT;
+        int to = Math.min(slots, from + PAGE_SIZE);
+        for (int slot = from; slot < to; slot++) {
+          fleet.copyTo(slot, target);
+        }
+        pages.set(page, COPIED);
+        return;
+      }
+      // Another thread is copying this page; it must be done before we may write to it
+      while (pages.get(page) != COPIED) {
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
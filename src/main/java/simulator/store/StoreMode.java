@@ -0,0 +1,22 @@
+package simulator.store;
+
+public enum StoreMode {
+  OBJECT("Object (per-ship objects)"),
+  COLUMNAR("Columnar (primitive arrays)"),
+  COMPACT("Compact (fixed-point columns)"),
+  OFF_HEAP("Off-heap (native memory)"),
+  MAPPED_FILE("Off-heap (memory-mapped file)");
+
+  private final String displayName;
+
+  StoreMode(String displayName) {
+    this.displayName = displayName;
+  }
+
+  public String getDisplayName() { return displayName; }
+
+  @Override
+  public String toString() {
+    return displayName;
+  }
+}
@@ -0,0 +1,468 @@
+package simulator.store;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import simulator.data.CompactKinematics;
+
+/**
+ * Append-only columnar store of every recorded position, for analytical queries over a run such
+ * as the average speed of one ship type in a time window and area.
+ *
+ * <p>Points are appended to chunks of up to {@link #getChunkPoints()} points covering at most
+ * {@link #getChunkMillis()} of time, kept as parallel primitive columns: time offset within the
+ * chunk, ship id, ship type code, speed, course and fixed-point latitude and longitude. Each chunk
+ * tracks the minimum and maximum of time, position and speed plus the set of ship types it holds,
+ * so a query skips chunks that cannot match and scans the rest with tight loops over the columns.
+ * Chunks that fully match a query are aggregated without evaluating per-point predicates.
+ *
+ * <p>Writers append to one of several open chunks, picked by ship id block like
+ * {@code ShipShard} ownership, so shard writers do not contend. Full chunks are sealed and become
+ * immutable; queries read sealed chunks without locking and open chunks under their lock.
+ */
+public final class TimeSeriesStore {
+  public static final int DEFAULT_CHUNK_POINTS = 1 << 16;
+  public static final long DEFAULT_CHUNK_MILLIS = 60_000;
+  /** Matches every ship type in a query; also the type of ships not yet known. */
+  public static final int ANY_TYPE = -1;
+  public static final int BYTES_PER_POINT = Integer.BYTES * 5 + Float.BYTES * 2;
+
+  private static final int INITIAL_CHUNK_CAPACITY = 256;
+  private static final int STRIPE_SHIFT = 10;
+  private static final int STRIPES = 16;
+  // Type codes beyond the mask share its top bit, which then only narrows conservatively
+  private static final int TYPE_MASK_BITS = 63;
+
+  private final int chunkPoints;
+  private final long chunkMillis;
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final LongAdder pointCount = new LongAdder();
+  private volatile Chunk[] sealed = new Chunk[0];
+  private volatile int[] shipTypes = new int[0];
+
+  public TimeSeriesStore() {
+    this(DEFAULT_CHUNK_POINTS, DEFAULT_CHUNK_MILLIS);
+  }
+
+  public TimeSeriesStore(int chunkPoints, long chunkMillis) {
+    if (chunkPoints < 1 || chunkMillis < 1 || chunkMillis > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Invalid chunk size: " + chunkPoints + " points, " + chunkMillis + " ms");
+    }
+    this.chunkPoints = chunkPoints;
+    this.chunkMillis = chunkMillis;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  public int getChunkPoints() { return chunkPoints; }
+  public long getChunkMillis() { return chunkMillis; }
+  public long getPointCount() { return pointCount.sum(); }
+
+  public int getChunkCount() {
+    int open = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        open += stripe.open != null ? 1 : 0;
+      }
+    }
+    return sealed.length + open;
+  }
+
+  /**
+   * Estimated heap taken by chunks and the ship type directory.
+   */
+  public long getMemoryBytes() {
+    long bytes = MemoryFootprint.arrayBytes(shipTypes.length, Integer.BYTES);
+    for (Chunk chunk : sealed) {
+      bytes += chunk.bytes();
+    }
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        bytes += stripe.open != null ? stripe.open.bytes() : 0;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * The ship type recorded with the ship's future points, or {@link #ANY_TYPE} if unknown.
+   */
+  public int getShipType(int shipId) {
+    int[] types = shipTypes;
+    return shipId >= 0 && shipId < types.length ? types[shipId] : ANY_TYPE;
+  }
+
+  /**
+   * Sets the type code recorded with the ship's future points; {@link #ANY_TYPE} forgets it.
+   */
+  public synchronized void setShipType(int shipId, int shipTypeCode) {
+    if (shipId < 0) {
+      return;
+    }
+    int[] types = shipTypes;
+    if (shipId >= types.length) {
+      int length = types.length;
+      types = Arrays.copyOf(types, Math.max(shipId + 1, length * 2));
+      Arrays.fill(types, length, types.length, ANY_TYPE);
+      types[shipId] = shipTypeCode;
+      shipTypes = types;
+    } else {
+      types[shipId] = shipTypeCode;
+    }
+  }
+
+  /**
+   * Appends a point for the ship, tagged with its current type. Points are expected in roughly
+   * increasing timestamp order; negative ids are ignored.
+   */
+  public void append(int shipId, long timestamp, double speed, double course, double latitude,
+      double longitude) {
+    if (shipId < 0) {
+      return;
+    }
+    int shipType = getShipType(shipId);
+    Stripe stripe = stripes[(shipId >>> STRIPE_SHIFT) % STRIPES];
+    synchronized (stripe) {
+      // Chunks are sealed before the stripe lock is released, so a query that no longer finds
+      // one open finds it sealed
+      Chunk chunk = stripe.open;
+      if (chunk != null && !chunk.accepts(timestamp)) {
+        seal(chunk);
+        chunk = null;
+      }
+      if (chunk == null) {
+        chunk = new Chunk(timestamp, Math.min(chunkPoints, INITIAL_CHUNK_CAPACITY), chunkMillis);
+        stripe.open = chunk;
+      }
+      if (chunk.size == chunk.time.length) {
+        chunk.grow(Math.min(chunkPoints, chunk.size * 2));
+      }
+      chunk.add(timestamp, shipId, shipType, (float) speed, (float) course,
+          CompactKinematics.encodeDegrees(latitude), CompactKinematics.encodeDegrees(longitude));
+      if (chunk.size == chunkPoints) {
+        seal(chunk);
+        stripe.open = null;
+      }
+    }
+    pointCount.increment();
+  }
+
+  private synchronized void seal(Chunk chunk) {
+    // Chunks closed by time are rarely full; drop the unused capacity
+    chunk.grow(chunk.size);
+    Chunk[] current = sealed;
+    Chunk[] grown = Arrays.copyOf(current, current.length + 1);
+    grown[current.length] = chunk;
+    sealed = grown;
+  }
+
+  /**
+   * Speed statistics over all points with {@code from <= timestamp <= to} of ships of type
+   * {@code shipTypeCode}, or of every type for {@link #ANY_TYPE}.
+   */
+  public Summary summarizeSpeed(long from, long to, int shipTypeCode) {
+    return summarizeSpeed(from, to, shipTypeCode, -90, 90, -180, 180);
+  }
+
+  /**
+   * Speed statistics over the points in the time window of the given type whose position lies
+   * within the latitude and longitude bounds, inclusive.
+   */
+  public Summary summarizeSpeed(long from, long to, int shipTypeCode, double minLatitude,
+      double maxLatitude, double minLongitude, double maxLongitude) {
+    Query query = new Query(from, to, shipTypeCode, CompactKinematics.encodeDegrees(minLatitude),
+        CompactKinematics.encodeDegrees(maxLatitude),
+        CompactKinematics.encodeDegrees(minLongitude),
+        CompactKinematics.encodeDegrees(maxLongitude));
+    Summary summary = new Summary();
+    // Open chunks first: one sealed meanwhile then appears in the sealed list too, and chunks
+    // already seen are skipped by identity
+    Chunk[] open = new Chunk[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      synchronized (stripes[i]) {
+        Chunk chunk = stripes[i].open;
+        if (chunk != null) {
+          query.scan(chunk, summary);
+          open[i] = chunk;
+        }
+      }
+    }
+    for (Chunk chunk : sealed) {
+      if (!contains(open, chunk)) {
+        query.scan(chunk, summary);
+      }
+    }
+    return summary;
+  }
+
+  private static boolean contains(Chunk[] chunks, Chunk chunk) {
+    for (Chunk candidate : chunks) {
+      if (candidate == chunk) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long typeBit(int shipTypeCode) {
+    return 1L << Math.min(Math.max(shipTypeCode, 0), TYPE_MASK_BITS);
+  }
+
+  private static final class Stripe {
+    Chunk open;
+  }
+
+  /**
+   * Columns and statistics of up to {@code capacity} points starting at {@code baseTime}.
+   */
+  private static final class Chunk {
+    final long baseTime;
+    final long maxOffset;
+    // Replaced while growing under the stripe lock, immutable once sealed
+    int[] time; // milliseconds after baseTime
+    int[] shipId;
+    int[] shipType;
+    float[] speed;
+    float[] course;
+    int[] latitude;
+    int[] longitude;
+    int size;
+
+    long minTime = Long.MAX_VALUE;
+    long maxTime = Long.MIN_VALUE;
+    int minLatitude = Integer.MAX_VALUE;
+    int maxLatitude = Integer.MIN_VALUE;
+    int minLongitude = Integer.MAX_VALUE;
+    int maxLongitude = Integer.MIN_VALUE;
+    float minSpeed = Float.MAX_VALUE;
+    float maxSpeed = -Float.MAX_VALUE;
+    long typeMask;
+    boolean singleType = true;
+
+    Chunk(long baseTime, int capacity, long chunkMillis) {
+      this.baseTime = baseTime;
+      this.maxOffset = chunkMillis;
+      this.time = new int[capacity];
+      this.shipId = new int[capacity];
+      this.shipType = new int[capacity];
+      this.speed = new float[capacity];
+      this.course = new float[capacity];
+      this.latitude = new int[capacity];
+      this.longitude = new int[capacity];
+    }
+
+    void grow(int capacity) {
+      time = Arrays.copyOf(time, capacity);
+      shipId = Arrays.copyOf(shipId, capacity);
+      shipType = Arrays.copyOf(shipType, capacity);
+      speed = Arrays.copyOf(speed, capacity);
+      course = Arrays.copyOf(course, capacity);
+      latitude = Arrays.copyOf(latitude, capacity);
+      longitude = Arrays.copyOf(longitude, capacity);
+    }
+
+    boolean accepts(long timestamp) {
+      long offset = timestamp - baseTime;
+      return offset >= 0 && offset < maxOffset;
+    }
+
+    void add(long timestamp, int id, int type, float speedValue, float courseValue,
+        int latitudeValue, int longitudeValue) {
+      int i = size;
+      time[i] = (int) (timestamp - baseTime);
+      shipId[i] = id;
+      shipType[i] = type;
+      speed[i] = speedValue;
+      course[i] = courseValue;
+      latitude[i] = latitudeValue;
+      longitude[i] = longitudeValue;
+      size = i + 1;
+
+      minTime = Math.min(minTime, timestamp);
+      maxTime = Math.max(maxTime, timestamp);
+      minLatitude = Math.min(minLatitude, latitudeValue);
+      maxLatitude = Math.max(maxLatitude, latitudeValue);
+      minLongitude = Math.min(minLongitude, longitudeValue);
+      maxLongitude = Math.max(maxLongitude, longitudeValue);
+      minSpeed = Math.min(minSpeed, speedValue);
+      maxSpeed = Math.max(maxSpeed, speedValue);
+      if (i > 0 && type != shipType[0]) {
+        singleType = false;
+      }
+      typeMask |= typeBit(type);
+    }
+
+    long bytes() {
+      int capacity = time.length;
+      return MemoryFootprint.arrayBytes(capacity, Integer.BYTES) * 5
+          + MemoryFootprint.arrayBytes(capacity, Float.BYTES) * 2
+          + MemoryFootprint.objectBytes(Long.BYTES * 5 + Integer.BYTES * 5 + Float.BYTES * 2 + 1
+              + MemoryFootprint.REFERENCE * 7);
+    }
+  }
+
+  private static final class Query {
+    final long from;
+    final long to;
+    final int shipType;
+    final int minLatitude;
+    final int maxLatitude;
+    final int minLongitude;
+    final int maxLongitude;
+
+    Query(long from, long to, int shipType, int minLatitude, int maxLatitude, int minLongitude,
+        int maxLongitude) {
+      this.from = from;
+      this.to = to;
+      this.shipType = shipType;
+      this.minLatitude = minLatitude;
+      this.maxLatitude = maxLatitude;
+      this.minLongitude = minLongitude;
+      this.maxLongitude = maxLongitude;
+    }
+
+    void scan(Chunk chunk, Summary summary) {
+      int n = chunk.size;
+      if (n == 0 || chunk.maxTime < from || chunk.minTime > to
+          || chunk.maxLatitude < minLatitude || chunk.minLatitude > maxLatitude
+          || chunk.maxLongitude < minLongitude || chunk.minLongitude > maxLongitude
+          || (shipType != ANY_TYPE && (chunk.typeMask & typeBit(shipType)) == 0)) {
+        summary.chunksSkipped++;
+        return;
+      }
+      summary.chunksScanned++;
+      boolean allTimes = chunk.minTime >= from && chunk.maxTime <= to;
+      boolean allPositions = chunk.minLatitude >= minLatitude && chunk.maxLatitude <= maxLatitude
+          && chunk.minLongitude >= minLongitude && chunk.maxLongitude <= maxLongitude;
+      boolean allTypes = shipType == ANY_TYPE
+          || (chunk.singleType && chunk.shipType[0] == shipType);
+      if (allTimes && allPositions && allTypes) {
+        sumAll(chunk.speed, n, summary);
+        return;
+      }
+      // Clamp the window to the chunk's offsets, which fit in an int
+      int fromOffset = from <= chunk.baseTime + Integer.MIN_VALUE ? Integer.MIN_VALUE
+          : (int) Math.min(Integer.MAX_VALUE, from - chunk.baseTime);
+      int toOffset = to >= chunk.baseTime + Integer.MAX_VALUE ? Integer.MAX_VALUE
+          : (int) Math.max(Integer.MIN_VALUE, to - chunk.baseTime);
+      if (allPositions && allTypes) {
+        sumInWindow(chunk, n, fromOffset, toOffset, summary);
+      } else {
+        sumMatching(chunk, n, fromOffset, toOffset, allTypes, summary);
+      }
+    }
+
+    private static void sumAll(float[] speed, int n, Summary summary) {
+      double sum = 0;
+      float min = Float.MAX_VALUE;
+      float max = -Float.MAX_VALUE;
+      for (int i = 0; i < n; i++) {
+        float value = speed[i];
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+      summary.add(n, sum, min, max);
+    }
+
+    private static void sumInWindow(Chunk chunk, int n, int fromOffset, int toOffset,
+        Summary summary) {
+      int[] time = chunk.time;
+      float[] speed = chunk.speed;
+      long count = 0;
+      double sum = 0;
+      float min = Float.MAX_VALUE;
+      float max = -Float.MAX_VALUE;
+      for (int i = 0; i < n; i++) {
+        int t = time[i];
+        if (t >= fromOffset && t <= toOffset) {
+          float value = speed[i];
+          count++;
+          sum += value;
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+      }
+      summary.add(count, sum, min, max);
+    }
+
+    private void sumMatching(Chunk chunk, int n, int fromOffset, int toOffset, boolean allTypes,
+        Summary summary) {
+      int[] time = chunk.time;
+      int[] type = chunk.shipType;
+      int[] latitude = chunk.latitude;
+      int[] longitude = chunk.longitude;
+      float[] speed = chunk.speed;
+      int wantedType = allTypes ? ANY_TYPE : shipType;
+      long count = 0;
+      double sum = 0;
+      float min = Float.MAX_VALUE;
+      float max = -Float.MAX_VALUE;
+      for (int i = 0; i < n; i++) {
+        int t = time[i];
+        int lat = latitude[i];
+        int lon = longitude[i];
+        if (t >= fromOffset && t <= toOffset
+            && (wantedType == ANY_TYPE || type[i] == wantedType)
+            && lat >= minLatitude && lat <= maxLatitude
+            && lon >= minLongitude && lon <= maxLongitude) {
+          float value = speed[i];
+          count++;
+          sum += value;
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+      }
+      summary.add(count, sum, min, max);
+    }
+  }
+
+  /**
+   * Result of a speed query, with how many chunks the chunk statistics let it skip.
+   */
+  public static final class Summary {
+    private long count;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private int chunksScanned;
+    private int chunksSkipped;
+
+    /**
+     * Empty result.
+     */
+    public Summary() {
+    }
+
+    void add(long matched, double matchedSum, float matchedMin, float matchedMax) {
+      if (matched == 0) {
+        return;
+      }
+      min = count == 0 ? matchedMin : Math.min(min, matchedMin);
+      max = count == 0 ? matchedMax : Math.max(max, matchedMax);
+      count += matched;
+      sum += matchedSum;
+    }
+
+    public long getCount() { return count; }
+    public double getSum() { return sum; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getChunksScanned() { return chunksScanned; }
+    public int getChunksSkipped() { return chunksSkipped; }
+
+    /**
+     * Mean speed of the matching points, NaN if none matched.
+     */
+    public double getMean() {
+      return count == 0 ? Double.NaN : sum / count;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Summary[count=%d, mean=%.3f, min=%.3f, max=%.3f, chunks=%d/%d]",
+          count, getMean(), min, max, chunksScanned, chunksScanned + chunksSkipped);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package simulator.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import simulator.data.CompactKinematics;
+import simulator.data.Track;
+
+/**
+ * Unbounded, compressed per-ship track history for long runs.
+ *
+ * <p>Points are quantized to the fixed-point form of {@link CompactKinematics} with millisecond
+ * timestamps, then stored as blocks of up to {@link #getBlockPoints()} points. Within a block every
+ * field is written as the zig-zag varint of its difference to the previous point, starting from
+ * zero, so consecutive update steps (a few seconds apart, a few hundred meters, small speed and
+ * course changes) take one to three bytes per field. Blocks record their time span, so
+ * a range read only decodes the blocks that overlap it.
+ *
+ * <p>Points carry the version of the update that wrote them. As in {@link TrackHistory}, a point
+ * older than the newest one archived for its ship, reported late by a concurrent writer, is
+ * dropped, so every track stays in update order and range reads can stop at the first point past
+ * their end.
+ */
+public final class TrackArchive {
+  public static final int DEFAULT_BLOCK_POINTS = 256;
+
+  private final int blockPoints;
+  // Striped, so writers on different ships do not contend
+  private final LongAdder pointCount = new LongAdder();
+  private final LongAdder encodedBytes = new LongAdder();
+  private volatile ShipTrack[] tracks = new ShipTrack[0];
+
+  public TrackArchive() {
+    this(DEFAULT_BLOCK_POINTS);
+  }
+
+  public TrackArchive(int blockPoints) {
+    if (blockPoints < 1) {
+      throw new IllegalArgumentException("Block size must be positive: " + blockPoints);
+    }
+    this.blockPoints = blockPoints;
+  }
+
+  public int getBlockPoints() { return blockPoints; }
+  public long getPointCount() { return pointCount.sum(); }
+
+  /**
+   * Encoded size of all archived points, excluding per-block bookkeeping.
+   */
+  public long getEncodedBytes() { return encodedBytes.sum(); }
+
+  /**
+   * Estimated heap taken by all tracks, including block bookkeeping and unfilled buffer space.
+   */
+  public long getMemoryBytes() {
+    ShipTrack[] current = tracks;
+    long bytes = MemoryFootprint.referenceArrayBytes(current.length);
+    for (ShipTrack track : current) {
+      if (track != null) {
+        synchronized (track) {
+          bytes += track.memoryBytes();
+        }
+      }
+    }
+    return bytes;
+  }
+
+  public double getBytesPerPoint() {
+    long points = pointCount.sum();
+    return points == 0 ? 0 : (double) encodedBytes.sum() / points;
+  }
+
+  /**
+   * Appends a point fixed at {@code timestamp} by the update stamped {@code version} to the ship's
+   * track. Points are expected in timestamp order; points with a version below the ship's newest
+   * and negative ids are ignored.
+   */
+  public void append(int shipId, long version, long timestamp, double speed, double course,
+      double latitude, double longitude) {
+    if (shipId < 0) {
+      return;
+    }
+    ShipTrack track = track(shipId);
+    synchronized (track) {
+      if (version < track.version) {
+        return;
+      }
+      track.version = version;
+      int written = track.append(timestamp, CompactKinematics.encodeSpeed(speed),
+          CompactKinematics.encodeCourse(course), CompactKinematics.encodeDegrees(latitude),
+          CompactKinematics.encodeDegrees(longitude));
+      // Counted under the track lock so a concurrent remove subtracts exactly what was added
+      pointCount.increment();
+      encodedBytes.add(written);
+    }
+  }
+
+  /**
+   * The ship's archived points with {@code from <= timestamp <= to}, oldest first.
+   */
+  public Track read(int shipId, long from, long to) {
+    ShipTrack track = existingTrack(shipId);
+    if (track == null) {
+      return Track.EMPTY;
+    }
+    synchronized (track) {
+      return track.read(from, to);
+    }
+  }
+
+  public Track read(int shipId) {
+    return read(shipId, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Drops the ship's archived points, e.g. before its id is reused.
+   */
+  public void remove(int shipId) {
+    ShipTrack track = existingTrack(shipId);
+    if (track == null) {
+      return;
+    }
+    synchronized (track) {
+      pointCount.add(-track.points);
+      encodedBytes.add(-track.bytes);
+      track.clear();
+    }
+  }
+
+  private ShipTrack existingTrack(int shipId) {
+    ShipTrack[] current = tracks;
+    return shipId >= 0 && shipId < current.length ? current[shipId] : null;
+  }
+
+  private ShipTrack track(int shipId) {
+    ShipTrack[] current = tracks;
+    if (shipId < current.length && current[shipId] != null) {
+      return current[shipId];
+    }
+    return allocate(shipId);
+  }
+
+  private synchronized ShipTrack allocate(int shipId) {
+    ShipTrack[] current = tracks;
+    if (shipId >= current.length) {
+      current = Arrays.copyOf(current, Math.max(shipId + 1, current.length * 2));
+    } else if (current[shipId] != null) {
+      return current[shipId];
+    } else {
+      current = current.clone();
+    }
+    ShipTrack track = new ShipTrack();
+    current[shipId] = track;
+    tracks = current;
+    return track;
+  }
+
+  /**
+   * Sealed block: {@code count} delta-encoded points spanning {@code firstTime .. lastTime}.
+   */
+  private static final class Block {
+    final long firstTime;
+    final long lastTime;
+    final int count;
+    final byte[] data;
+
+    Block(long firstTime, long lastTime, int count, byte[] data) {
+      this.firstTime = firstTime;
+      this.lastTime = lastTime;
+      this.count = count;
+      this.data = data;
+    }
+  }
+
+  /**
+   * One ship's sealed blocks plus the block being filled. Guarded by its own monitor.
+   */
+  private final class ShipTrack {
+    private final List<Block> sealed = new ArrayList<>();
+    private byte[] buffer = new byte[64];
+    private int length;
+    private int count;
+    private long firstTime;
+    private long previousTime;
+    private int previousSpeed;
+    private int previousCourse;
+    private int previousLatitude;
+    private int previousLongitude;
+    long points;
+    long bytes;
+    // Newest version appended
+    long version;
+
+    int append(long timestamp, short speed, short course, int latitude, int longitude) {
+      if (count == 0) {
+        firstTime = timestamp;
+      }
+      int start = length;
+      writeVarLong(timestamp - previousTime);
+      writeVarLong(speed - previousSpeed);
+      writeVarLong(course - previousCourse);
+      writeVarLong((long) latitude - previousLatitude);
+      writeVarLong((long) longitude - previousLongitude);
+      previousTime = timestamp;
+      previousSpeed = speed;
+      previousCourse = course;
+      previousLatitude = latitude;
+      previousLongitude = longitude;
+      count++;
+      points++;
+      int written = length - start;
+      bytes += written;
+
+      if (count == blockPoints) {
+        sealed.add(new Block(firstTime, timestamp, count, Arrays.copyOf(buffer, length)));
+        reset();
+      }
+      return written;
+    }
+
+    long memoryBytes() {
+      // ShipTrack with its block list, plus each sealed block and its data
+      long bytes = MemoryFootprint.objectBytes(Integer.BYTES * 6 + Long.BYTES * 5
+          + MemoryFootprint.REFERENCE * 3) + MemoryFootprint.objectBytes(Integer.BYTES * 2
+          + MemoryFootprint.REFERENCE) + MemoryFootprint.referenceArrayBytes(sealed.size())
+          + MemoryFootprint.arrayBytes(buffer.length, 1);
+      for (Block block : sealed) {
+        bytes += MemoryFootprint.objectBytes(Long.BYTES * 2 + Integer.BYTES
+            + MemoryFootprint.REFERENCE) + MemoryFootprint.arrayBytes(block.data.length, 1);
+      }
+      return bytes;
+    }
+
+    Track read(long from, long to) {
+      int capacity = count;
+      for (Block block : sealed) {
+        if (overlaps(block.firstTime, block.lastTime, from, to)) {
+          capacity += block.count;
+        }
+      }
+      Track track = new Track(capacity);
+      for (Block block : sealed) {
+        if (overlaps(block.firstTime, block.lastTime, from, to)) {
+          decode(block.data, block.data.length, block.count, from, to, track);
+        }
+      }
+      if (count > 0 && overlaps(firstTime, previousTime, from, to)) {
+        decode(buffer, length, count, from, to, track);
+      }
+      return track;
+    }
+
+    void clear() {
+      sealed.clear();
+      buffer = new byte[64];
+      reset();
+      points = 0;
+      bytes = 0;
+      version = 0;
+    }
+
+    private void reset() {
+      length = 0;
+      count = 0;
+      previousTime = 0;
+      previousSpeed = 0;
+      previousCourse = 0;
+      previousLatitude = 0;
+      previousLongitude = 0;
+    }
+
+    private void writeVarLong(long value) {
+      if (length + 10 > buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+      // Zig-zag maps small negative and positive deltas alike to small unsigned values
+      long zigZag = (value << 1) ^ (value >> 63);
+      while ((zigZag & ~0x7FL) != 0) {
+        buffer[length++] = (byte) ((zigZag & 0x7F) | 0x80);
+        zigZag >>>= 7;
+      }
+      buffer[length++] = (byte) zigZag;
+    }
+  }
+
+  private static boolean overlaps(long first, long last, long from, long to) {
+    return last >= from && first <= to;
+  }
+
+  private static void decode(byte[] data, int length, int count, long from, long to, Track track) {
+    int[] position = {0};
+    long time = 0;
+    int speed = 0;
+    int course = 0;
+    int latitude = 0;
+    int longitude = 0;
+    for (int i = 0; i < count && position[0] < length; i++) {
+      time += readVarLong(data, position);
+      speed += (int) readVarLong(data, position);
+      course += (int) readVarLong(data, position);
+      latitude += (int) readVarLong(data, position);
+      longitude += (int) readVarLong(data, position);
+      if (time > to) {
+        return;
+      }
+      if (time >= from) {
+        track.add(time, CompactKinematics.decodeSpeed((short) speed),
+            CompactKinematics.decodeCourse((short) course),
+            CompactKinematics.decodeDegrees(latitude), CompactKinematics.decodeDegrees(longitude));
+      }
+    }
+  }
+
+  private static long readVarLong(byte[] data, int[] position) {
+    long zigZag = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = data[position[0]++];
+      zigZag |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return (zigZag >>> 1) ^ -(zigZag & 1);
+  }
+}
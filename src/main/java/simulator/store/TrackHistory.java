@@ -0,0 +1,358 @@
+package simulator.store;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import simulator.data.CompactKinematics;
+import simulator.data.Track;
+
+/**
+ * Bounded per-ship history of recent positions, keyed by ship id.
+ *
+ * <p>Each ship owns a ring of {@link #getDepth()} points; once full, every new point replaces the
+ * oldest. Points are kept in primitive columns in the fixed-point form of
+ * {@link CompactKinematics} plus a timestamp at 0.1 s resolution, {@value #BYTES_PER_POINT} bytes
+ * each. Rings are allocated for {@value #PAGE_SHIPS} consecutive ids at a time on first use, so
+ * the footprint is predictable up front: {@link #bytesFor(int, int)}. For example one hour of
+ * history for 100k ships updated every 5 seconds takes a depth of 720 and about 1.1 GiB.
+ *
+ * <p>With a simplification tolerance, points are filtered as they arrive: the newest stored point
+ * floats, and a new point replaces it instead of being appended while the segment from the
+ * previous stored point to the new one still passes within the tolerance of every point it
+ * replaced. The check keeps, per ship, the cone of directions that satisfies all replaced points
+ * and their greatest distance, so it costs constant time and 13 bytes per ship. Every dropped
+ * point therefore lies within the tolerance of the stored polyline, and the ship's latest
+ * position is always the newest point.
+ *
+ * <p>Points carry the version of the update that wrote them. A point older than the newest one
+ * recorded for its ship, reported late by a concurrent writer, is dropped, so rings stay in
+ * update order.
+ *
+ * <p>Each ring is guarded by a sequence lock, so readers get a consistent copy without blocking
+ * writers.
+ */
+public final class TrackHistory {
+  public static final int BYTES_PER_POINT = Integer.BYTES * 3 + Short.BYTES * 2;
+  public static final int MAX_DEPTH = 1 << 20;
+
+  static final int PAGE_SHIFT = 10;
+  static final int PAGE_SHIPS = 1 << PAGE_SHIFT;
+  // Point count, newest version and sequence lock
+  private static final int BYTES_PER_RING = Long.BYTES * 3;
+  private static final int BYTES_PER_SIMPLIFIED_RING = 1 + Float.BYTES * 3;
+  private static final long TIME_UNIT_MILLIS = 100;
+  private static final double EARTH_RADIUS = 6371000; // meters
+
+  private final int depth;
+  private final double tolerance;
+  private final long baseMillis;
+  private final LongAdder offeredPoints = new LongAdder();
+  private final LongAdder storedPoints = new LongAdder();
+  private volatile Page[] pages = new Page[0];
+
+  /**
+   * @param depth points kept per ship, at most {@value #MAX_DEPTH}
+   */
+  public TrackHistory(int depth) {
+    this(depth, 0);
+  }
+
+  /**
+   * @param depth points kept per ship, at most {@value #MAX_DEPTH}
+   * @param toleranceMeters simplification tolerance, 0 to store every point; needs a depth of at
+   *     least 2
+   */
+  public TrackHistory(int depth, double toleranceMeters) {
+    if (depth < 1 || depth > MAX_DEPTH || (toleranceMeters > 0 && depth < 2)) {
+      throw new IllegalArgumentException("Track depth out of range: " + depth);
+    }
+    this.depth = depth;
+    this.tolerance = Math.max(0, toleranceMeters);
+    this.baseMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * Memory taken by the history of {@code ships} ships at {@code depth} points each.
+   */
+  public static long bytesFor(int ships, int depth) {
+    return (long) ships * ((long) depth * BYTES_PER_POINT + BYTES_PER_RING);
+  }
+
+  /**
+   * Depth needed to cover {@code window} for a ship updated every {@code updateInterval}.
+   */
+  public static int depthFor(Duration window, Duration updateInterval) {
+    long intervalMillis = Math.max(1, updateInterval.toMillis());
+    long depth = (window.toMillis() + intervalMillis - 1) / intervalMillis;
+    return (int) Math.max(1, Math.min(MAX_DEPTH, depth));
+  }
+
+  public int getDepth() { return depth; }
+  public double getToleranceMeters() { return tolerance; }
+
+  /**
+   * Points passed to {@link #record}, including those dropped as out of order.
+   */
+  public long getOfferedPoints() { return offeredPoints.sum(); }
+
+  /**
+   * Points appended to a ring rather than merged by simplification.
+   */
+  public long getStoredPoints() { return storedPoints.sum(); }
+
+  /**
+   * Memory currently allocated for rings.
+   */
+  public long getAllocatedBytes() {
+    int allocated = 0;
+    for (Page page : pages) {
+      if (page != null) {
+        allocated++;
+      }
+    }
+    long ships = (long) allocated * PAGE_SHIPS;
+    return bytesFor(allocated * PAGE_SHIPS, depth)
+        + (tolerance > 0 ? ships * BYTES_PER_SIMPLIFIED_RING : 0);
+  }
+
+  /**
+   * Appends a point fixed at {@code timestamp} by the update stamped {@code version} to the ship's
+   * ring, or with simplification lets it replace the newest point when that keeps every dropped
+   * point within the tolerance. Points with a version below the ship's newest and negative ids
+   * are ignored.
+   */
+  public void record(int shipId, long version, long timestamp, double speed, double course,
+      double latitude, double longitude) {
+    if (shipId < 0) {
+      return;
+    }
+    Page p = page(shipId >>> PAGE_SHIFT);
+    int ring = shipId & (PAGE_SHIPS - 1);
+    offeredPoints.increment();
+    long seq = p.sequence.beginWrite(ring);
+    try {
+      if (version < p.version[ring]) {
+        return;
+      }
+      p.version[ring] = version;
+      long written = p.written[ring];
+      if (tolerance > 0 && written > 0 && simplify(p, ring, written, latitude, longitude)) {
+        write(p, ring * depth + (int) ((written - 1) % depth), timestamp, speed, course, latitude,
+            longitude);
+        return;
+      }
+      write(p, ring * depth + (int) (written % depth), timestamp, speed, course, latitude,
+          longitude);
+      p.written[ring] = written + 1;
+    } finally {
+      p.sequence.endWrite(ring, seq);
+    }
+    storedPoints.increment();
+  }
+
+  private static void write(Page p, int at, long timestamp, double speed, double course,
+      double latitude, double longitude) {
+    p.time[at] = p.encodeTime(timestamp);
+    p.speed[at] = CompactKinematics.encodeSpeed(speed);
+    p.course[at] = CompactKinematics.encodeCourse(course);
+    p.latitude[at] = CompactKinematics.encodeDegrees(latitude);
+    p.longitude[at] = CompactKinematics.encodeDegrees(longitude);
+  }
+
+  /**
+   * Returns true if the new point may replace the floating newest point; otherwise prepares the
+   * cone for the new point, which the caller appends as the new floating point.
+   */
+  private boolean simplify(Page p, int ring, long written, double latitude, double longitude) {
+    int first = ring * depth;
+    if (p.floating[ring]) {
+      int anchor = first + (int) ((written - 2) % depth);
+      double distance = distance(p, anchor, latitude, longitude);
+      double bearing = bearing(p, anchor, latitude, longitude);
+      double offset = angle(bearing - p.coneCenter[ring]);
+      // Farther than every replaced point, and pointing through all of their tolerance discs
+      if (distance >= p.reach[ring] && Math.abs(offset) <= p.coneHalfWidth[ring]) {
+        double halfWidth = halfWidth(distance);
+        double low = Math.max(-p.coneHalfWidth[ring], offset - halfWidth);
+        double high = Math.min(p.coneHalfWidth[ring], offset + halfWidth);
+        p.coneCenter[ring] = (float) angle(p.coneCenter[ring] + (low + high) / 2);
+        p.coneHalfWidth[ring] = (float) ((high - low) / 2);
+        p.reach[ring] = (float) distance;
+        return true;
+      }
+    }
+    // The newest point becomes the anchor of a new floating segment
+    int anchor = first + (int) ((written - 1) % depth);
+    double distance = distance(p, anchor, latitude, longitude);
+    p.floating[ring] = true;
+    p.coneCenter[ring] = (float) bearing(p, anchor, latitude, longitude);
+    p.coneHalfWidth[ring] = (float) halfWidth(distance);
+    p.reach[ring] = (float) distance;
+    return false;
+  }
+
+  private double halfWidth(double distance) {
+    return distance <= tolerance ? Math.PI : Math.asin(tolerance / distance);
+  }
+
+  // Local planar offsets from the anchor; segments span at most a few kilometers
+  private static double distance(Page p, int anchor, double latitude, double longitude) {
+    return Math.hypot(east(p, anchor, latitude, longitude), north(p, anchor, latitude));
+  }
+
+  private static double bearing(Page p, int anchor, double latitude, double longitude) {
+    return Math.atan2(east(p, anchor, latitude, longitude), north(p, anchor, latitude));
+  }
+
+  private static double north(Page p, int anchor, double latitude) {
+    double anchorLatitude = CompactKinematics.decodeDegrees(p.latitude[anchor]);
+    return Math.toRadians(latitude - anchorLatitude) * EARTH_RADIUS;
+  }
+
+  private static double east(Page p, int anchor, double latitude, double longitude) {
+    double anchorLatitude = CompactKinematics.decodeDegrees(p.latitude[anchor]);
+    double dLon = longitude - CompactKinematics.decodeDegrees(p.longitude[anchor]);
+    dLon = (dLon + 540) % 360 - 180; // across the antimeridian
+    return Math.toRadians(dLon) * Math.cos(Math.toRadians(anchorLatitude)) * EARTH_RADIUS;
+  }
+
+  private static double angle(double radians) {
+    return Math.IEEEremainder(radians, 2 * Math.PI);
+  }
+
+  /**
+   * Forgets the ship's points, e.g. before its id is reused.
+   */
+  public void clear(int shipId) {
+    Page p = existingPage(shipId);
+    if (p == null) {
+      return;
+    }
+    int ring = shipId & (PAGE_SHIPS - 1);
+    long seq = p.sequence.beginWrite(ring);
+    p.written[ring] = 0;
+    p.version[ring] = 0;
+    if (p.floating != null) {
+      p.floating[ring] = false;
+    }
+    p.sequence.endWrite(ring, seq);
+  }
+
+  /**
+   * The ship's last {@code count} points, or fewer if fewer are recorded.
+   */
+  public Track lastPoints(int shipId, int count) {
+    return read(shipId, count, Long.MIN_VALUE);
+  }
+
+  /**
+   * The ship's recorded points with a timestamp at or after {@code timestamp}.
+   */
+  public Track since(int shipId, long timestamp) {
+    return read(shipId, depth, timestamp);
+  }
+
+  private Track read(int shipId, int maxPoints, long fromTimestamp) {
+    Page p = existingPage(shipId);
+    if (p == null || maxPoints <= 0) {
+      return Track.EMPTY;
+    }
+    int ring = shipId & (PAGE_SHIPS - 1);
+    int first = ring * depth;
+    while (true) {
+      long seq = p.sequence.beginRead(ring);
+      long written = p.written[ring];
+      int available = (int) Math.min(Math.min(written, depth), maxPoints);
+      // Walk back from the newest point while it is recent enough
+      int count = 0;
+      while (count < available
+          && decodeTime(p.time[first + (int) ((written - count - 1) % depth)]) >= fromTimestamp) {
+        count++;
+      }
+      Track track = new Track(count);
+      for (long n = written - count; n < written; n++) {
+        int at = first + (int) (n % depth);
+        track.add(decodeTime(p.time[at]), CompactKinematics.decodeSpeed(p.speed[at]),
+            CompactKinematics.decodeCourse(p.course[at]),
+            CompactKinematics.decodeDegrees(p.latitude[at]),
+            CompactKinematics.decodeDegrees(p.longitude[at]));
+      }
+      if (p.sequence.validate(ring, seq)) {
+        return track;
+      }
+    }
+  }
+
+  private long decodeTime(int units) {
+    return baseMillis + units * TIME_UNIT_MILLIS;
+  }
+
+  private Page existingPage(int shipId) {
+    int index = shipId >>> PAGE_SHIFT;
+    Page[] current = pages;
+    return shipId >= 0 && index < current.length ? current[index] : null;
+  }
+
+  private Page page(int index) {
+    Page[] current = pages;
+    if (index < current.length && current[index] != null) {
+      return current[index];
+    }
+    return allocate(index);
+  }
+
+  private synchronized Page allocate(int index) {
+    Page[] current = pages;
+    if (index >= current.length) {
+      current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+    } else if (current[index] != null) {
+      return current[index];
+    } else {
+      current = current.clone();
+    }
+    Page page = new Page(depth, tolerance > 0, baseMillis);
+    current[index] = page;
+    pages = current;
+    return page;
+  }
+
+  /**
+   * Rings of {@value #PAGE_SHIPS} consecutive ship ids, each occupying {@code depth} consecutive
+   * entries of the point columns.
+   */
+  private static final class Page {
+    final long[] written = new long[PAGE_SHIPS];
+    final long[] version = new long[PAGE_SHIPS];
+    final SequenceLocks sequence = new SequenceLocks(PAGE_SHIPS);
+    final int[] time;
+    final int[] latitude;
+    final int[] longitude;
+    final short[] speed;
+    final short[] course;
+    // Simplification state per ring, null when disabled
+    final boolean[] floating;
+    final float[] coneCenter;
+    final float[] coneHalfWidth;
+    final float[] reach;
+    private final long baseMillis;
+
+    Page(int depth, boolean simplified, long baseMillis) {
+      int points = PAGE_SHIPS * depth;
+      this.time = new int[points];
+      this.latitude = new int[points];
+      this.longitude = new int[points];
+      this.speed = new short[points];
+      this.course = new short[points];
+      this.floating = simplified ? new boolean[PAGE_SHIPS] : null;
+      this.coneCenter = simplified ? new float[PAGE_SHIPS] : null;
+      this.coneHalfWidth = simplified ? new float[PAGE_SHIPS] : null;
+      this.reach = simplified ? new float[PAGE_SHIPS] : null;
+      this.baseMillis = baseMillis;
+    }
+
+    int encodeTime(long timestamp) {
+      long units = (timestamp - baseMillis) / TIME_UNIT_MILLIS;
+      return (int) Math.max(0, Math.min(Integer.MAX_VALUE, units));
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package simulator.benchmark;
+
+import java.util.Random;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.ShipDataService;
+import simulator.store.StoreMode;
+
+/**
+ * Compares per-ship kinematic updates through {@link ShipDataService#updateKinematicData(int)}
+ * with {@link ShipDataService#updateKinematicBatch(int[], int)} at several batch sizes, on the
+ * same random id sequence. Each case is warmed up first and then timed over several rounds; the
+ * best round is reported.
+ *
+ * <p>Usage: {@code BatchUpdateBenchmark [ships] [updatesPerRound] [storeModes]}.
+ */
+public class BatchUpdateBenchmark {
+
+  private static final int[] BATCH_SIZES = {16, 256, 4096};
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int updates = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    String[] modes = (args.length > 2 ? args[2] : "OBJECT,COLUMNAR,OFF_HEAP").split(",");
+
+    int[] shipIds = new int[updates];
+    Random random = new Random(42);
+    for (int i = 0; i < updates; i++) {
+      shipIds[i] = random.nextInt(ships) + 1;
+    }
+
+    System.out.printf("%,d ships, %,d updates per round%n", ships, updates);
+    System.out.printf("%-32s %10s %14s %10s%n", "Store", "Batch", "Updates/s", "Speedup");
+    for (String modeName : modes) {
+      StoreMode mode = StoreMode.valueOf(modeName.trim());
+      ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+          new IdentityDataGenerator(), mode);
+      service.initializeShips(ships);
+
+      double single = best(() -> {
+        for (int shipId : shipIds) {
+          service.updateKinematicData(shipId);
+        }
+      }, updates);
+      System.out.printf("%-32s %10s %,14.0f %10.2f%n", mode, "-", single, 1.0);
+      for (int batchSize : BATCH_SIZES) {
+        int[] batch = new int[batchSize];
+        double rate = best(() -> {
+          for (int from = 0; from < updates; from += batchSize) {
+            int count = Math.min(batchSize, updates - from);
+            System.arraycopy(shipIds, from, batch, 0, count);
+            service.updateKinematicBatch(batch, count);
+          }
+        }, updates);
+        System.out.printf("%-32s %10d %,14.0f %10.2f%n", mode, batchSize, rate, rate / single);
+      }
+    }
+  }
+
+  private static double best(Runnable round, int updates) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.run();
+    }
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      round.run();
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return updates * 1_000_000_000.0 / fastest;
+  }
+}
@@ -0,0 +1,88 @@
+package simulator.benchmark;
+
+import java.util.Random;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.ShipDataService;
+import simulator.store.StoreMode;
+
+/**
+ * Compares the cost of one tick that recomputes every ship with one that updates only the ships
+ * reporting in that tick and dead-reckons the observed ones on read, as with
+ * {@link ShipDataService#setDeadReckoningEnabled(boolean)}.
+ *
+ * <p>Usage: {@code DeadReckoningBenchmark [ships] [reportingPercent] [observed] [storeModes]}.
+ */
+public class DeadReckoningBenchmark {
+
+  private static final int BATCH_SIZE = 1024;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 5;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    double reportingPercent = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+    int observed = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    String[] modes = (args.length > 3 ? args[3] : "OBJECT,COLUMNAR,OFF_HEAP").split(",");
+
+    Random random = new Random(42);
+    int[] everyShip = new int[ships];
+    for (int i = 0; i < ships; i++) {
+      everyShip[i] = i + 1;
+    }
+    int[] reporting = randomIds(random, (int) (ships * reportingPercent / 100), ships);
+    int[] observedIds = randomIds(random, observed, ships);
+
+    System.out.printf("%,d ships, %.1f%% reporting and %,d observed per lazy tick%n", ships,
+        reportingPercent, observed);
+    System.out.printf("%-32s %-10s %12s %10s%n", "Store", "Tick", "Ticks/s", "Speedup");
+    for (String modeName : modes) {
+      StoreMode mode = StoreMode.valueOf(modeName.trim());
+      ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+          new IdentityDataGenerator(), mode);
+      service.initializeShips(ships);
+      double[] state = new double[KinematicDataGenerator.STATE_SIZE];
+
+      double eager = best(() -> update(service, everyShip));
+      service.setDeadReckoningEnabled(true);
+      double lazy = best(() -> {
+        update(service, reporting);
+        for (int shipId : observedIds) {
+          service.readKinematicData(shipId, state);
+        }
+      });
+      System.out.printf("%-32s %-10s %,12.1f %10.2f%n", mode, "eager", eager, 1.0);
+      System.out.printf("%-32s %-10s %,12.1f %10.2f%n", mode, "lazy", lazy, lazy / eager);
+    }
+  }
+
+  private static int[] randomIds(Random random, int count, int ships) {
+    int[] ids = new int[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = random.nextInt(ships) + 1;
+    }
+    return ids;
+  }
+
+  private static void update(ShipDataService service, int[] shipIds) {
+    int[] batch = new int[BATCH_SIZE];
+    for (int from = 0; from < shipIds.length; from += BATCH_SIZE) {
+      int count = Math.min(BATCH_SIZE, shipIds.length - from);
+      System.arraycopy(shipIds, from, batch, 0, count);
+      service.updateKinematicBatch(batch, count);
+    }
+  }
+
+  private static double best(Runnable tick) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      tick.run();
+    }
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      tick.run();
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return 1_000_000_000.0 / fastest;
+  }
+}
@@ -0,0 +1,84 @@
+package simulator.benchmark;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.ShipDataService;
+import simulator.store.StoreMode;
+
+/**
+ * Times a full-fleet aggregation (mean speed of ships north of the equator) walking
+ * {@link ShipDataService#getAllShips()}, {@link ShipDataService#stream()} and
+ * {@link ShipDataService#parallelStream()}.
+ *
+ * <p>Usage: {@code FleetScanBenchmark [ships] [storeModes]}.
+ */
+public class FleetScanBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 5;
+
+  // Keeps results reachable so the JIT cannot drop the work
+  private static double sink;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    String[] modes = (args.length > 1 ? args[1] : "OBJECT,COLUMNAR,OFF_HEAP").split(",");
+
+    System.out.printf("%,d ships, %d cores%n", ships, Runtime.getRuntime().availableProcessors());
+    System.out.printf("%-32s %-16s %12s %10s%n", "Store", "Scan", "Ships/s", "Speedup");
+    for (String modeName : modes) {
+      StoreMode mode = StoreMode.valueOf(modeName.trim());
+      ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+          new IdentityDataGenerator(), mode);
+      service.initializeShips(ships);
+
+      ToDoubleFunction<ShipDataService> list = s -> {
+        List<ShipData> all = s.getAllShips();
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < all.size(); i++) {
+          ShipData ship = all.get(i);
+          if (ship != null && ship.getKinematicData().getLatitude() > 0) {
+            sum += ship.getKinematicData().getSpeed();
+            count++;
+          }
+        }
+        return sum / count;
+      };
+      ToDoubleFunction<ShipDataService> sequential = s -> s.stream()
+          .filter(ship -> ship.getKinematicData().getLatitude() > 0)
+          .mapToDouble(ship -> ship.getKinematicData().getSpeed())
+          .average().orElse(Double.NaN);
+      ToDoubleFunction<ShipDataService> parallel = s -> s.parallelStream()
+          .filter(ship -> ship.getKinematicData().getLatitude() > 0)
+          .mapToDouble(ship -> ship.getKinematicData().getSpeed())
+          .average().orElse(Double.NaN);
+
+      double base = best(service, list, ships);
+      System.out.printf("%-32s %-16s %,12.0f %10.2f%n", mode, "getAllShips", base, 1.0);
+      double rate = best(service, sequential, ships);
+      System.out.printf("%-32s %-16s %,12.0f %10.2f%n", mode, "stream", rate, rate / base);
+      rate = best(service, parallel, ships);
+      System.out.printf("%-32s %-16s %,12.0f %10.2f%n", mode, "parallelStream", rate,
+          rate / base);
+    }
+    System.out.println("(sink " + (sink > 0 ? 1 : 0) + ")");
+  }
+
+  private static double best(ShipDataService service, ToDoubleFunction<ShipDataService> scan,
+      int ships) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      sink += scan.applyAsDouble(service);
+    }
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      sink += scan.applyAsDouble(service);
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return ships * 1_000_000_000.0 / fastest;
+  }
+}
@@ -0,0 +1,80 @@
+package simulator.benchmark;
+
+import simulator.data.IdentityData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.ShipDataService;
+import simulator.store.StoreMode;
+
+/**
+ * Compares identity generation with the former {@code String.format} based IMO/MMSI/call-sign
+ * construction against the numeric-native path, then reports fleet generation and identity-update
+ * throughput per store mode.
+ *
+ * <p>Usage: {@code IdentityBenchmark [ships] [rounds]}.
+ */
+public class IdentityBenchmark {
+
+  private static final String[] LEGACY_NAMES = {"Atlantic Star", "Pacific Dawn", "Blue Whale"};
+  private static final String[] LEGACY_TYPES = {"Container Ship", "Tanker", "Bulk Carrier"};
+
+  // Keeps results reachable so the JIT cannot drop the work
+  private static long sink;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    System.out.printf("%-36s %16s%n", "Identity generation", "ids/s");
+    for (int round = 0; round < rounds; round++) {
+      boolean report = round == rounds - 1;
+      measure("String.format (before)", ships, report, IdentityBenchmark::legacyIdentity);
+      IdentityDataGenerator generator = new IdentityDataGenerator();
+      measure("Numeric-native (after)", ships, report, generator::generateIdentityData);
+    }
+
+    System.out.printf("%n%-32s %16s %16s%n", "Store", "Fleet gen ships/s", "Id updates/s");
+    for (StoreMode mode : StoreMode.values()) {
+      ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+          new IdentityDataGenerator(), mode);
+      long start = System.nanoTime();
+      service.initializeShips(ships);
+      long initialized = System.nanoTime();
+      for (int shipId = 1; shipId <= ships; shipId++) {
+        service.updateIdentityData(shipId);
+      }
+      long updated = System.nanoTime();
+      System.out.printf("%-32s %16.0f %16.0f%n", mode,
+          perSecond(ships, initialized - start), perSecond(ships, updated - initialized));
+    }
+    System.out.println("(sink " + (sink & 1) + ")");
+  }
+
+  private interface IdentitySource {
+    IdentityData create(int shipId);
+  }
+
+  private static void measure(String label, int ships, boolean report, IdentitySource source) {
+    long start = System.nanoTime();
+    for (int shipId = 1; shipId <= ships; shipId++) {
+      sink += source.create(shipId).getImoNumber();
+    }
+    long elapsed = System.nanoTime() - start;
+    if (report) {
+      System.out.printf("%-36s %16.0f%n", label, perSecond(ships, elapsed));
+    }
+  }
+
+  private static IdentityData legacyIdentity(int shipId) {
+    return new IdentityData(
+        String.format("IMO%07d", 9000000 + shipId),
+        String.format("%09d", 200000000 + shipId),
+        String.format("CALL%04d", shipId),
+        LEGACY_NAMES[shipId % LEGACY_NAMES.length] + " " + (shipId / LEGACY_NAMES.length + 1),
+        LEGACY_TYPES[shipId % LEGACY_TYPES.length]);
+  }
+
+  private static double perSecond(int count, long nanos) {
+    return count * 1_000_000_000.0 / nanos;
+  }
+}
@@ -0,0 +1,120 @@
+package simulator.benchmark;
+
+import java.util.SplittableRandom;
+import simulator.generator.MotionModel;
+import simulator.generator.PositionIntegrator;
+
+/**
+ * Measures how many ships per second each {@link MotionModel} advances with the scalar and the
+ * Vector API {@link PositionIntegrator}, one batch at a time over a fleet held in parallel
+ * arrays with up to two minutes elapsed per ship, and checks every result against the scalar
+ * great circle: the largest distance between
+ * the two positions must stay within the tolerance, or the run fails. Run with
+ * {@code --add-modules jdk.incubator.vector}, or the vector rows use the scalar path.
+ *
+ * <p>Usage: {@code PositionIntegrationBenchmark [ships] [batchSize] [rounds] [toleranceMeters]}.
+ */
+public class PositionIntegrationBenchmark {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final double EARTH_RADIUS = 6371000; // meters
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    double tolerance = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+
+    double[] speed = new double[ships];
+    double[] course = new double[ships];
+    double[] seconds = new double[ships];
+    double[] latitude = new double[ships];
+    double[] longitude = new double[ships];
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < ships; i++) {
+      // Up to the 21 m/s a ship at top speed can reach before its speed is clamped
+      speed[i] = random.nextDouble() * 21;
+      course[i] = random.nextDouble() * 360;
+      seconds[i] = random.nextDouble() * 120;
+      latitude[i] = random.nextDouble() * 180 - 90;
+      longitude[i] = random.nextDouble() * 360 - 180;
+    }
+
+    PositionIntegrator reference = PositionIntegrator.scalar(MotionModel.GREAT_CIRCLE);
+    double[] expectedLatitude = latitude.clone();
+    double[] expectedLongitude = longitude.clone();
+    reference.integrate(speed, course, seconds, expectedLatitude, expectedLongitude, ships);
+
+    System.out.printf("%,d ships in batches of %,d, tolerance %.3f m%n", ships, batchSize,
+        tolerance);
+    System.out.printf("%-24s %-20s %16s %10s %12s%n", "Model", "Integrator", "Ships/s", "Speedup",
+        "Max error m");
+    double base = 0;
+    double worst = 0;
+    for (MotionModel model : MotionModel.values()) {
+      for (PositionIntegrator integrator : new PositionIntegrator[] {
+          PositionIntegrator.scalar(model), PositionIntegrator.create(model)}) {
+        double rate = best(integrator, speed, course, seconds, latitude, longitude, batchSize,
+            rounds);
+        if (base == 0) {
+          base = rate;
+        }
+        double[] actualLatitude = latitude.clone();
+        double[] actualLongitude = longitude.clone();
+        integrator.integrate(speed, course, seconds, actualLatitude, actualLongitude, ships);
+        double error = 0;
+        for (int i = 0; i < ships; i++) {
+          error = Math.max(error, distance(expectedLatitude[i], expectedLongitude[i],
+              actualLatitude[i], actualLongitude[i]));
+        }
+        worst = Math.max(worst, error);
+        System.out.printf("%-24s %-20s %,16.0f %10.2f %12.2e%n", model, integrator.getName(),
+            rate, rate / base, error);
+      }
+    }
+    if (worst > tolerance) {
+      throw new IllegalStateException(
+          String.format("Positional error %.3f m exceeds tolerance %.3f m", worst, tolerance));
+    }
+  }
+
+  /**
+   * Haversine distance in meters.
+   */
+  private static double distance(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+        * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  private static double best(PositionIntegrator integrator, double[] speed, double[] course,
+      double[] seconds, double[] latitude, double[] longitude, int batchSize, int rounds) {
+    int ships = speed.length;
+    double[] batchSpeed = new double[batchSize];
+    double[] batchCourse = new double[batchSize];
+    double[] batchSeconds = new double[batchSize];
+    double[] batchLatitude = new double[batchSize];
+    double[] batchLongitude = new double[batchSize];
+    long fastest = Long.MAX_VALUE;
+    for (int round = 0; round < WARMUP_ROUNDS + rounds; round++) {
+      long start = System.nanoTime();
+      for (int from = 0; from < ships; from += batchSize) {
+        // Integrates a copy, so every round starts from the same fleet
+        int count = Math.min(batchSize, ships - from);
+        System.arraycopy(speed, from, batchSpeed, 0, count);
+        System.arraycopy(course, from, batchCourse, 0, count);
+        System.arraycopy(seconds, from, batchSeconds, 0, count);
+        System.arraycopy(latitude, from, batchLatitude, 0, count);
+        System.arraycopy(longitude, from, batchLongitude, 0, count);
+        integrator.integrate(batchSpeed, batchCourse, batchSeconds, batchLatitude, batchLongitude,
+            count);
+      }
+      if (round >= WARMUP_ROUNDS) {
+        fastest = Math.min(fastest, System.nanoTime() - start);
+      }
+    }
+    return ships * 1_000_000_000.0 / fastest;
+  }
+}
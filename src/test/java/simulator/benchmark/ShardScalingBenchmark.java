@@ -0,0 +1,80 @@
+package simulator.benchmark;
+
+import java.util.random.RandomGenerator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.ShipDataService;
+import simulator.service.ShipShard;
+import simulator.store.StoreMode;
+
+/**
+ * Measures kinematic update throughput with one writer thread per {@link ShipShard}, for a
+ * growing number of shards, and the speedup over a single shard.
+ *
+ * <p>Usage: {@code ShardScalingBenchmark [ships] [seconds] [storeMode] [maxShards]}.
+ */
+public class ShardScalingBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+    StoreMode mode = args.length > 2 ? StoreMode.valueOf(args[2]) : StoreMode.COLUMNAR;
+    int maxShards = args.length > 3 ? Integer.parseInt(args[3])
+        : Runtime.getRuntime().availableProcessors();
+
+    System.out.printf("%s, %,d ships, %d cores%n", mode, ships,
+        Runtime.getRuntime().availableProcessors());
+    System.out.printf("%8s %16s %10s%n", "Shards", "Updates/s", "Speedup");
+    double single = 0;
+    for (int shards = 1; shards <= maxShards; shards *= 2) {
+      ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+          new IdentityDataGenerator(), mode);
+      service.setShardCount(shards);
+      service.initializeShips(ships);
+      run(service, 0.5); // warm-up
+      double rate = run(service, seconds);
+      if (shards == 1) {
+        single = rate;
+      }
+      System.out.printf("%8d %,16.0f %10.2f%n", shards, rate, rate / single);
+    }
+  }
+
+  private static double run(ShipDataService service, double seconds)
+      throws InterruptedException {
+    int shardCount = service.getShardCount();
+    int idBound = service.getShipIdBound();
+    AtomicBoolean stop = new AtomicBoolean();
+    long[] updates = new long[shardCount];
+    Thread[] writers = new Thread[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      int index = i;
+      ShipShard shard = service.getShard(i);
+      writers[i] = new Thread(() -> {
+        RandomGenerator random = shard.getRandom();
+        long count = 0;
+        while (!stop.get()) {
+          for (int k = 0; k < 1024; k++) {
+            shard.updateKinematicData(shard.randomShipId(random, idBound));
+          }
+          count += 1024;
+        }
+        updates[index] = count;
+      }, "shard-" + i);
+    }
+
+    long start = System.nanoTime();
+    for (Thread writer : writers) {
+      writer.start();
+    }
+    Thread.sleep((long) (seconds * 1000));
+    stop.set(true);
+    long total = 0;
+    for (int i = 0; i < shardCount; i++) {
+      writers[i].join();
+      total += updates[i];
+    }
+    return total * 1_000_000_000.0 / (System.nanoTime() - start);
+  }
+}
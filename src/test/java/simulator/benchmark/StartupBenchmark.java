@@ -0,0 +1,63 @@
+package simulator.benchmark;
+
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.service.DataStreamSimulator;
+import simulator.service.ShipDataService;
+import simulator.store.StoreMode;
+
+/**
+ * Measures time-to-first-tick: building the fleet plus running one simulation tick.
+ *
+ * <p>Usage: {@code StartupBenchmark [fleetSizes] [storeModes]}, e.g.
+ * {@code StartupBenchmark 100000,1000000,10000000 OBJECT,COLUMNAR}. Run with a heap large enough
+ * for the biggest fleet (e.g. {@code -Xmx8g}); sizes that do not fit are reported as OOM.
+ */
+public class StartupBenchmark {
+
+  public static void main(String[] args) {
+    String[] sizes = (args.length > 0 ? args[0] : "100000,1000000,10000000").split(",");
+    String[] modes = args.length > 1 ? args[1].split(",") : names(StoreMode.values());
+
+    System.out.printf("%-32s %12s %12s %12s %12s%n",
+        "Store", "Ships", "Init (ms)", "Tick (ms)", "First (ms)");
+    for (String modeName : modes) {
+      StoreMode mode = StoreMode.valueOf(modeName.trim());
+      for (String size : sizes) {
+        run(mode, Integer.parseInt(size.trim()));
+      }
+    }
+  }
+
+  private static void run(StoreMode mode, int numberOfShips) {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(),
+        new IdentityDataGenerator(), mode);
+    DataStreamSimulator simulator = new DataStreamSimulator(service);
+    System.gc();
+
+    try {
+      long start = System.nanoTime();
+      service.initializeShips(numberOfShips);
+      long initialized = System.nanoTime();
+      simulator.runTick();
+      long ticked = System.nanoTime();
+
+      System.out.printf("%-32s %12d %12.1f %12.1f %12.1f%n", mode, numberOfShips,
+          millis(initialized - start), millis(ticked - initialized), millis(ticked - start));
+    } catch (OutOfMemoryError e) {
+      System.out.printf("%-32s %12d %12s%n", mode, numberOfShips, "OOM");
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static String[] names(StoreMode[] values) {
+    String[] names = new String[values.length];
+    for (int i = 0; i < values.length; i++) {
+      names[i] = values[i].name();
+    }
+    return names;
+  }
+}
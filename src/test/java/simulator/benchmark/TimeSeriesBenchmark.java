@@ -0,0 +1,101 @@
+package simulator.benchmark;
+
+import simulator.data.IdentityDictionary;
+import simulator.data.KinematicData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.TimeSeriesStore;
+
+/**
+ * Fills a {@link TimeSeriesStore} with simulated updates and times the query "average speed of
+ * all tankers during one hour" against a brute-force scan of the same points held in plain
+ * arrays.
+ *
+ * <p>Usage: {@code TimeSeriesBenchmark [ships] [pointsPerShip] [intervalMs]}.
+ */
+public class TimeSeriesBenchmark {
+
+  private static final long HOUR = 3_600_000;
+  private static final int ROUNDS = 10;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int points = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    long intervalMs = args.length > 2 ? Long.parseLong(args[2]) : 20_000;
+
+    KinematicDataGenerator kinematicGenerator = new KinematicDataGenerator();
+    IdentityDataGenerator identityGenerator = new IdentityDataGenerator();
+    TimeSeriesStore series = new TimeSeriesStore();
+    double[][] states = new double[ships + 1][];
+    int[] types = new int[ships + 1];
+    for (int shipId = 1; shipId <= ships; shipId++) {
+      KinematicData initial = kinematicGenerator.generateInitialData();
+      states[shipId] = new double[] {
+          initial.getSpeed(), initial.getCourse(), initial.getLatitude(), initial.getLongitude()
+      };
+      types[shipId] = identityGenerator.generateIdentityData(shipId).getShipTypeCode();
+      series.setShipType(shipId, types[shipId]);
+    }
+
+    int total = ships * points;
+    long[] rawTime = new long[total];
+    int[] rawType = new int[total];
+    float[] rawSpeed = new float[total];
+    long start = System.currentTimeMillis();
+    long appendStart = System.nanoTime();
+    int n = 0;
+    for (int step = 0; step < points; step++) {
+      for (int shipId = 1; shipId <= ships; shipId++) {
+        double[] state = states[shipId];
+        kinematicGenerator.advance(state, intervalMs / 1000.0);
+        // Spread each step's reports over the interval, as a live feed would
+        long timestamp = start + step * intervalMs + (shipId * intervalMs) / (ships + 1);
+        series.append(shipId, timestamp, state[KinematicDataGenerator.SPEED],
+            state[KinematicDataGenerator.COURSE], state[KinematicDataGenerator.LATITUDE],
+            state[KinematicDataGenerator.LONGITUDE]);
+        rawTime[n] = timestamp;
+        rawType[n] = types[shipId];
+        rawSpeed[n] = (float) state[KinematicDataGenerator.SPEED];
+        n++;
+      }
+    }
+    long appendNanos = System.nanoTime() - appendStart;
+
+    int tanker = IdentityDictionary.SHIP_TYPES.codeOf("Tanker");
+    long from = start + HOUR;
+    long to = from + HOUR - 1;
+
+    TimeSeriesStore.Summary summary = null;
+    long fastestQuery = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long queryStart = System.nanoTime();
+      summary = series.summarizeSpeed(from, to, tanker);
+      fastestQuery = Math.min(fastestQuery, System.nanoTime() - queryStart);
+    }
+
+    long count = 0;
+    double sum = 0;
+    long fastestScan = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long scanStart = System.nanoTime();
+      count = 0;
+      sum = 0;
+      for (int i = 0; i < total; i++) {
+        if (rawTime[i] >= from && rawTime[i] <= to && rawType[i] == tanker) {
+          count++;
+          sum += rawSpeed[i];
+        }
+      }
+      fastestScan = Math.min(fastestScan, System.nanoTime() - scanStart);
+    }
+
+    System.out.printf("%,d points (%,d ships x %,d, every %d ms) in %,d chunks, %.1f MB%n",
+        series.getPointCount(), ships, points, intervalMs, series.getChunkCount(),
+        series.getMemoryBytes() / (1024.0 * 1024.0));
+    System.out.printf("Append %,.0f points/s%n", total * 1_000_000_000.0 / appendNanos);
+    System.out.printf("Tankers, second hour: %s%n", summary);
+    System.out.printf("Brute force:          count=%d, mean=%.3f%n", count, sum / count);
+    System.out.printf("Query %.2f ms, brute-force scan %.2f ms%n", fastestQuery / 1e6,
+        fastestScan / 1e6);
+  }
+}
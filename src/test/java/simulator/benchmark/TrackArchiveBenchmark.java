@@ -0,0 +1,95 @@
+package simulator.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import simulator.data.CompactKinematics;
+import simulator.data.KinematicData;
+import simulator.data.Track;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.TrackArchive;
+import simulator.store.TrackHistory;
+
+/**
+ * Archives simulated tracks and reports the bytes per point achieved by {@link TrackArchive}
+ * against raw points and the fixed-size {@link TrackHistory} ring, the encode and decode rates,
+ * and the largest position error after a round trip.
+ *
+ * <p>Usage: {@code TrackArchiveBenchmark [ships] [pointsPerShip] [intervalMs]}.
+ */
+public class TrackArchiveBenchmark {
+
+  private static final int RAW_BYTES_PER_POINT = Long.BYTES + 4 * Double.BYTES;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int points = args.length > 1 ? Integer.parseInt(args[1]) : 720;
+    long intervalMs = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+
+    KinematicDataGenerator generator = new KinematicDataGenerator();
+    TrackArchive archive = new TrackArchive();
+    double[][] states = new double[ships + 1][];
+    for (int shipId = 1; shipId <= ships; shipId++) {
+      KinematicData initial = generator.generateInitialData();
+      states[shipId] = new double[] {
+          initial.getSpeed(), initial.getCourse(), initial.getLatitude(), initial.getLongitude()
+      };
+    }
+
+    long startTime = System.currentTimeMillis();
+    long start = System.nanoTime();
+    for (int step = 0; step < points; step++) {
+      for (int shipId = 1; shipId <= ships; shipId++) {
+        double[] state = states[shipId];
+        generator.advance(state, intervalMs / 1000.0);
+        // Reports arrive roughly on schedule, with some jitter
+        long timestamp = startTime + step * intervalMs
+            + ThreadLocalRandom.current().nextLong(intervalMs / 10 + 1);
+        archive.append(shipId, step + 1, timestamp, state[KinematicDataGenerator.SPEED],
+            state[KinematicDataGenerator.COURSE], state[KinematicDataGenerator.LATITUDE],
+            state[KinematicDataGenerator.LONGITUDE]);
+      }
+    }
+    long encoded = System.nanoTime();
+
+    long decodedPoints = 0;
+    double maxError = 0;
+    for (int shipId = 1; shipId <= ships; shipId++) {
+      Track track = archive.read(shipId);
+      decodedPoints += track.size();
+      double[] state = states[shipId];
+      int last = track.size() - 1;
+      maxError = Math.max(maxError,
+          Math.abs(track.getLatitude(last) - state[KinematicDataGenerator.LATITUDE]));
+      maxError = Math.max(maxError,
+          Math.abs(track.getLongitude(last) - state[KinematicDataGenerator.LONGITUDE]));
+    }
+    long decoded = System.nanoTime();
+
+    // Range reads over the last tenth of the run only decode the overlapping blocks
+    long rangeFrom = startTime + (long) (points * 0.9) * intervalMs;
+    long rangePoints = 0;
+    for (int shipId = 1; shipId <= ships; shipId++) {
+      rangePoints += archive.read(shipId, rangeFrom, Long.MAX_VALUE).size();
+    }
+    long ranged = System.nanoTime();
+
+    long total = archive.getPointCount();
+    System.out.printf("Archived %,d points (%,d ships x %,d, every %d ms)%n", total, ships,
+        points, intervalMs);
+    System.out.printf("%-28s %10s %10s%n", "Representation", "B/point", "Ratio");
+    System.out.printf("%-28s %10d %10.2f%n", "Raw (long + 4 doubles)", RAW_BYTES_PER_POINT, 1.0);
+    System.out.printf("%-28s %10d %10.2f%n", "TrackHistory ring", TrackHistory.BYTES_PER_POINT,
+        (double) RAW_BYTES_PER_POINT / TrackHistory.BYTES_PER_POINT);
+    System.out.printf("%-28s %10.2f %10.2f%n", "TrackArchive (delta varint)",
+        archive.getBytesPerPoint(), RAW_BYTES_PER_POINT / archive.getBytesPerPoint());
+    System.out.printf("%nEncode %,.0f points/s, full decode %,.0f points/s, "
+            + "range decode %,.0f points/s%n",
+        perSecond(total, encoded - start), perSecond(decodedPoints, decoded - encoded),
+        perSecond(rangePoints, ranged - decoded));
+    System.out.printf("Max position error %.2e deg (bound %.1e)%n", maxError,
+        CompactKinematics.MAX_POSITION_ERROR);
+  }
+
+  private static double perSecond(long count, long nanos) {
+    return count * 1_000_000_000.0 / nanos;
+  }
+}
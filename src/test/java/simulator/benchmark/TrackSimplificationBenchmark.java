@@ -0,0 +1,109 @@
+package simulator.benchmark;
+
+import simulator.data.KinematicData;
+import simulator.data.Track;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.TrackHistory;
+
+/**
+ * Records simulated tracks into a {@link TrackHistory} at several simplification tolerances and
+ * reports the points kept and the largest distance of any original point from the stored track,
+ * which must stay within the tolerance.
+ *
+ * <p>Usage: {@code TrackSimplificationBenchmark [ships] [pointsPerShip]}.
+ */
+public class TrackSimplificationBenchmark {
+
+  private static final double[] TOLERANCES = {0, 10, 50, 100, 250, 500};
+  private static final double EARTH_RADIUS = 6371000; // meters
+  private static final long INTERVAL_MS = 1_000;
+
+  public static void main(String[] args) {
+    int ships = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+    int points = args.length > 1 ? Integer.parseInt(args[1]) : 720;
+
+    // The same tracks for every tolerance
+    KinematicDataGenerator generator = new KinematicDataGenerator();
+    double[][][] tracks = new double[ships][points][];
+    for (int ship = 0; ship < ships; ship++) {
+      KinematicData initial = generator.generateInitialData();
+      double[] state = {
+          initial.getSpeed(), initial.getCourse(), initial.getLatitude(), initial.getLongitude()
+      };
+      for (int step = 0; step < points; step++) {
+        generator.advance(state, INTERVAL_MS / 1000.0);
+        tracks[ship][step] = state.clone();
+      }
+    }
+
+    System.out.printf("%,d ships x %,d points%n", ships, points);
+    System.out.printf("%-14s %10s %10s %14s %12s%n", "Tolerance (m)", "Kept", "Ratio",
+        "Max error (m)", "Points/s");
+    for (double tolerance : TOLERANCES) {
+      TrackHistory history = new TrackHistory(points, tolerance);
+      long base = System.currentTimeMillis();
+      long start = System.nanoTime();
+      for (int step = 0; step < points; step++) {
+        for (int ship = 0; ship < ships; ship++) {
+          double[] state = tracks[ship][step];
+          // One update per step, so the step numbers the versions
+          history.record(ship, step + 1, base + step * INTERVAL_MS,
+              state[KinematicDataGenerator.SPEED], state[KinematicDataGenerator.COURSE],
+              state[KinematicDataGenerator.LATITUDE], state[KinematicDataGenerator.LONGITUDE]);
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+
+      double maxError = 0;
+      for (int ship = 0; ship < ships; ship++) {
+        maxError = Math.max(maxError, maxError(tracks[ship], history.lastPoints(ship, points),
+            base));
+      }
+      long kept = history.getStoredPoints();
+      System.out.printf("%-14.0f %10d %10.1f %14.2f %,12.0f%n", tolerance, kept,
+          (double) history.getOfferedPoints() / kept, maxError,
+          history.getOfferedPoints() * 1_000_000_000.0 / elapsed);
+    }
+  }
+
+  /**
+   * Largest distance of an original point from the stored segment spanning its timestamp.
+   */
+  private static double maxError(double[][] original, Track stored, long base) {
+    double max = 0;
+    int segment = 0;
+    for (int step = 0; step < original.length; step++) {
+      long timestamp = base + step * INTERVAL_MS;
+      while (segment + 1 < stored.size() - 1 && stored.getTimestamp(segment + 1) <= timestamp) {
+        segment++;
+      }
+      double latitude = original[step][KinematicDataGenerator.LATITUDE];
+      double longitude = original[step][KinematicDataGenerator.LONGITUDE];
+      max = Math.max(max, distanceToSegment(latitude, longitude,
+          stored.getLatitude(segment), stored.getLongitude(segment),
+          stored.getLatitude(segment + 1), stored.getLongitude(segment + 1)));
+    }
+    return max;
+  }
+
+  private static double distanceToSegment(double latitude, double longitude, double fromLatitude,
+      double fromLongitude, double toLatitude, double toLongitude) {
+    double scale = Math.cos(Math.toRadians(fromLatitude));
+    double px = east(longitude - fromLongitude, scale);
+    double py = north(latitude - fromLatitude);
+    double sx = east(toLongitude - fromLongitude, scale);
+    double sy = north(toLatitude - fromLatitude);
+    double lengthSquared = sx * sx + sy * sy;
+    double t = lengthSquared == 0 ? 0
+        : Math.max(0, Math.min(1, (px * sx + py * sy) / lengthSquared));
+    return Math.hypot(px - t * sx, py - t * sy);
+  }
+
+  private static double east(double dLon, double scale) {
+    return Math.toRadians((dLon + 540) % 360 - 180) * scale * EARTH_RADIUS;
+  }
+
+  private static double north(double dLat) {
+    return Math.toRadians(dLat) * EARTH_RADIUS;
+  }
+}
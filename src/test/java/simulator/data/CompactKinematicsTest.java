@@ -0,0 +1,94 @@
+package simulator.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class CompactKinematicsTest {
+  private static final int SAMPLES = 200_000;
+  private static final double KNOTS = 1852.0 / 3600.0;
+
+  private final SplittableRandom random = new SplittableRandom(11);
+
+  @Test
+  void positionsRoundWithinTheDocumentedError() {
+    for (int i = 0; i < SAMPLES; i++) {
+      double latitude = random.nextDouble(-90, 90);
+      double longitude = random.nextDouble(-180, 180);
+      assertWithin(CompactKinematics.MAX_POSITION_ERROR, latitude,
+          CompactKinematics.decodeDegrees(CompactKinematics.encodeDegrees(latitude)));
+      assertWithin(CompactKinematics.MAX_POSITION_ERROR, longitude,
+          CompactKinematics.decodeDegrees(CompactKinematics.encodeDegrees(longitude)));
+    }
+    for (double degrees : new double[] {-180, -90, 0, 90, 180, 0.0000005, -0.0000005}) {
+      assertWithin(CompactKinematics.MAX_POSITION_ERROR, degrees,
+          CompactKinematics.decodeDegrees(CompactKinematics.encodeDegrees(degrees)));
+    }
+  }
+
+  @Test
+  void speedsRoundWithinTheDocumentedError() {
+    for (int i = 0; i < SAMPLES; i++) {
+      double speed = random.nextDouble(0, 100);
+      assertWithin(CompactKinematics.MAX_SPEED_ERROR, speed,
+          CompactKinematics.decodeSpeed(CompactKinematics.encodeSpeed(speed)));
+    }
+    // Halfway between two deci-knots
+    for (int deciKnots = 0; deciKnots < 1_000; deciKnots++) {
+      double speed = (deciKnots + 0.5) / 10 * KNOTS;
+      assertWithin(CompactKinematics.MAX_SPEED_ERROR, speed,
+          CompactKinematics.decodeSpeed(CompactKinematics.encodeSpeed(speed)));
+    }
+  }
+
+  @Test
+  void speedsSaturateAtTheEncodableRange() {
+    double top = Short.MAX_VALUE / 10.0 * KNOTS;
+    assertEquals(Short.MAX_VALUE, CompactKinematics.encodeSpeed(top));
+    assertEquals(Short.MAX_VALUE, CompactKinematics.encodeSpeed(top + 1));
+    assertEquals(Short.MAX_VALUE, CompactKinematics.encodeSpeed(1e12));
+    assertEquals(Short.MAX_VALUE, CompactKinematics.encodeSpeed(Double.POSITIVE_INFINITY));
+    assertWithin(CompactKinematics.MAX_SPEED_ERROR, top,
+        CompactKinematics.decodeSpeed(Short.MAX_VALUE));
+    assertEquals(0, CompactKinematics.encodeSpeed(0));
+    assertEquals(0, CompactKinematics.encodeSpeed(-3));
+  }
+
+  @Test
+  void coursesRoundWithinTheDocumentedError() {
+    for (int i = 0; i < SAMPLES; i++) {
+      double course = random.nextDouble(0, 360);
+      short encoded = CompactKinematics.encodeCourse(course);
+      assertTrue(encoded >= 0 && encoded < 3600, "course " + course);
+      assertWithinAngle(course, CompactKinematics.decodeCourse(encoded));
+    }
+  }
+
+  @Test
+  void coursesWrapAtAFullTurn() {
+    assertEquals(0, CompactKinematics.encodeCourse(360));
+    assertEquals(0, CompactKinematics.encodeCourse(359.96));
+    assertEquals(3599, CompactKinematics.encodeCourse(359.94));
+    assertEquals(0, CompactKinematics.encodeCourse(720));
+    assertEquals(10, CompactKinematics.encodeCourse(361));
+    assertEquals(3590, CompactKinematics.encodeCourse(-1));
+    assertEquals(0, CompactKinematics.encodeCourse(-0.01));
+    for (double course : new double[] {359.951, 359.99, 360, 360.04, -0.04, -359.99}) {
+      assertWithinAngle(course, CompactKinematics.decodeCourse(
+          CompactKinematics.encodeCourse(course)));
+    }
+  }
+
+  private static void assertWithin(double error, double expected, double actual) {
+    assertTrue(Math.abs(expected - actual) <= error, expected + " decoded as " + actual);
+  }
+
+  private static void assertWithinAngle(double expected, double actual) {
+    double difference = Math.abs(expected - actual) % 360;
+    difference = Math.min(difference, 360 - difference);
+    assertTrue(difference <= CompactKinematics.MAX_COURSE_ERROR,
+        expected + " decoded as " + actual);
+  }
+}
@@ -0,0 +1,150 @@
+package simulator.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import simulator.generator.IdentityDataGenerator;
+
+class IdentityDataTest {
+
+  @Test
+  void generatedIdentifiersStayNumeric() {
+    IdentityData identity = new IdentityData("IMO9000042", "200000042", "CALL0042",
+        "Pioneer 3", "Tanker");
+
+    assertEquals(9000042, identity.getImoNumber());
+    assertEquals(200000042, identity.getMmsiNumber());
+    assertEquals(CallSigns.pack("CALL", 42, 4), identity.getPackedCallSign());
+    assertText(identity, "IMO9000042", "200000042", "CALL0042");
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "UNKNOWN, N/A, call-1",
+      "9000042, 0, ''",
+      "IMO123, 12345, CALLSIGN-TOO-LONG",
+      "IMO0000000123, 0012345678, CALL100000000",
+      "IMO99999999999, 99999999999, ÆGIR",
+      "IMO-5, -5, abc",
+  })
+  void identifiersWithoutNumericFormKeepTheirText(String imo, String mmsi, String callSign) {
+    IdentityData identity = new IdentityData(imo, mmsi, callSign, "Pioneer 3", "Tanker");
+
+    assertText(identity, imo, mmsi, callSign);
+    // Stores keep only the numbers and rebuild the identity from them
+    assertText(stored(identity), imo, mmsi, callSign);
+  }
+
+  @Test
+  void sameTextPacksToSameValue() {
+    IdentityData first = new IdentityData("UNKNOWN", "N/A", "call-1", "Pioneer", "Tanker");
+    IdentityData second = new IdentityData("UNKNOWN", "N/A", "call-1", "Horizon", "Tug");
+
+    assertEquals(first.getImoNumber(), second.getImoNumber());
+    assertEquals(first.getMmsiNumber(), second.getMmsiNumber());
+    assertEquals(first.getPackedCallSign(), second.getPackedCallSign());
+    assertEquals(CallSigns.pack("CALL100000000"), CallSigns.pack("CALL", 100_000_000, 4));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 9_999, 99_999_999, 100_000_000, 1_500_000_000})
+  void generatorHandlesEveryShipId(int shipId) {
+    IdentityData identity = new IdentityDataGenerator(1).generateIdentityData(shipId);
+
+    String expected = String.format("CALL%04d", shipId);
+    assertEquals(expected, identity.getCallSign());
+    assertEquals(expected, stored(identity).getCallSign());
+    assertEquals(String.format("IMO%07d", 9000000 + shipId), identity.getImo());
+    assertEquals(String.format("%09d", 200000000 + shipId), identity.getMmsi());
+    assertEquals(shipId < 100_000_000, identity.getPackedCallSign() >= 0);
+  }
+
+  @Test
+  void appendersMatchGetters() {
+    IdentityData identity = new IdentityData("UNKNOWN", "200000042", "call-1", "Pioneer 3",
+        "Tanker");
+    StringBuilder text = new StringBuilder("[");
+
+    identity.appendImo(text).append(',');
+    identity.appendMmsi(text).append(',');
+    identity.appendCallSign(text).append(']');
+
+    assertEquals("[UNKNOWN,200000042,call-1]", text.toString());
+    assertTrue(identity.toString().contains("CallSign:call-1"), identity.toString());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "IMO9000042, 200000042, CALL0042, Pioneer 3, Tanker",
+      "UNKNOWN, N/A, call-1, Serialized Only Name, Serialized Only Type",
+  })
+  void serializedFormCarriesTheText(String imo, String mmsi, String callSign, String shipName,
+      String shipType) throws Exception {
+    IdentityData identity = new IdentityData(imo, mmsi, callSign, shipName, shipType);
+
+    byte[] bytes = serialize(identity);
+    // Dictionary codes would decode differently in another process
+    String stream = new String(bytes, StandardCharsets.ISO_8859_1);
+    assertTrue(stream.contains(shipType), stream);
+    assertTrue(stream.contains(callSign), stream);
+
+    IdentityData copy = (IdentityData) deserialize(bytes);
+    assertText(copy, imo, mmsi, callSign);
+    assertEquals(shipName, copy.getShipName());
+    assertEquals(shipType, copy.getShipType());
+  }
+
+  @Test
+  void shipsSerializeWithTheirIdentity() throws Exception {
+    IdentityData identity = new IdentityData("IMO9000042", "200000042", "CALL0042", "Pioneer 3",
+        "Tanker");
+    ShipData ship = new ShipData(42, new KinematicData(12.5, 90, 10.25, 20.5), identity,
+        1_000_000, 3, 4);
+
+    ShipData copy = (ShipData) deserialize(serialize(ship));
+
+    assertEquals(42, copy.getShipId());
+    assertEquals(1_000_000, copy.getLastUpdateTimestamp());
+    assertEquals(3, copy.getKinematicVersion());
+    assertEquals(4, copy.getIdentityVersion());
+    assertEquals(10.25, copy.getKinematicData().getLatitude());
+    assertEquals(identity.toString(), copy.getIdentityData().toString());
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
+  private static IdentityData stored(IdentityData identity) {
+    return new IdentityData(identity.getImoNumber(), identity.getMmsiNumber(),
+        identity.getPackedCallSign(), identity.getShipNameCode(),
+        identity.getShipNameNumber(), identity.getShipTypeCode());
+  }
+
+  private static void assertText(IdentityData identity, String imo, String mmsi,
+      String callSign) {
+    assertEquals(imo, identity.getImo());
+    assertEquals(mmsi, identity.getMmsi());
+    assertEquals(callSign, identity.getCallSign());
+  }
+}
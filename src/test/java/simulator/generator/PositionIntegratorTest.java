@@ -0,0 +1,112 @@
+package simulator.generator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class PositionIntegratorTest {
+  // Largest distance allowed from the scalar great circle, in meters
+  private static final double TOLERANCE = 0.1;
+  private static final double EARTH_RADIUS = 6371000; // meters
+  // Not a multiple of any vector length, so the scalar tail runs too
+  private static final int SHIPS = 100_003;
+
+  @Test
+  void createUsesVectorApiWhenModuleIsPresent() {
+    for (MotionModel model : MotionModel.values()) {
+      String name = PositionIntegrator.create(model).getName();
+      assertTrue(name.startsWith("vector"), name);
+    }
+  }
+
+  @Test
+  void vectorGreatCircleMatchesScalar() {
+    Fleet fleet = new Fleet(1, 120);
+    assertWithinTolerance(fleet, PositionIntegrator.create(MotionModel.GREAT_CIRCLE));
+  }
+
+  @Test
+  void equirectangularMatchesGreatCircle() {
+    Fleet fleet = new Fleet(2, 120);
+    assertWithinTolerance(fleet, PositionIntegrator.scalar(MotionModel.EQUIRECTANGULAR));
+    assertWithinTolerance(fleet, PositionIntegrator.create(MotionModel.EQUIRECTANGULAR));
+  }
+
+  @Test
+  void equirectangularFallsBackForLongGaps() {
+    // Up to a day since the last fix: most steps are far beyond the local model's range
+    Fleet fleet = new Fleet(3, 86_400);
+    assertWithinTolerance(fleet, PositionIntegrator.scalar(MotionModel.EQUIRECTANGULAR));
+    assertWithinTolerance(fleet, PositionIntegrator.create(MotionModel.EQUIRECTANGULAR));
+  }
+
+  @Test
+  void zeroElapsedTimeKeepsPositions() {
+    Fleet fleet = new Fleet(4, 0);
+    for (MotionModel model : MotionModel.values()) {
+      double[] latitude = fleet.latitude.clone();
+      double[] longitude = fleet.longitude.clone();
+      PositionIntegrator.create(model).integrate(fleet.speed, fleet.course, fleet.seconds,
+          latitude, longitude, SHIPS);
+      for (int i = 0; i < SHIPS; i++) {
+        // Only rounding moves a ship, most of it from asin near the poles
+        assertTrue(distance(fleet.latitude[i], fleet.longitude[i], latitude[i], longitude[i])
+            <= TOLERANCE, model + " moved ship " + i);
+      }
+    }
+  }
+
+  private static void assertWithinTolerance(Fleet fleet, PositionIntegrator integrator) {
+    double[] expectedLatitude = fleet.latitude.clone();
+    double[] expectedLongitude = fleet.longitude.clone();
+    PositionIntegrator.scalar(MotionModel.GREAT_CIRCLE).integrate(fleet.speed, fleet.course,
+        fleet.seconds, expectedLatitude, expectedLongitude, SHIPS);
+    double[] latitude = fleet.latitude.clone();
+    double[] longitude = fleet.longitude.clone();
+    integrator.integrate(fleet.speed, fleet.course, fleet.seconds, latitude, longitude, SHIPS);
+
+    for (int i = 0; i < SHIPS; i++) {
+      assertTrue(latitude[i] >= -90 && latitude[i] <= 90, "latitude " + latitude[i]);
+      assertTrue(longitude[i] >= -180 && longitude[i] < 180, "longitude " + longitude[i]);
+      double error = distance(expectedLatitude[i], expectedLongitude[i], latitude[i],
+          longitude[i]);
+      assertTrue(error <= TOLERANCE, String.format("%s %s: ship %d is %.3f m off",
+          integrator.getModel(), integrator.getName(), i, error));
+    }
+  }
+
+  /**
+   * Haversine distance in meters.
+   */
+  private static double distance(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+        * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  /**
+   * Random ships anywhere on the globe, up to the 21 m/s a ship can reach before its speed is
+   * clamped.
+   */
+  private static final class Fleet {
+    final double[] speed = new double[SHIPS];
+    final double[] course = new double[SHIPS];
+    final double[] seconds = new double[SHIPS];
+    final double[] latitude = new double[SHIPS];
+    final double[] longitude = new double[SHIPS];
+
+    Fleet(long seed, double maxSeconds) {
+      SplittableRandom random = new SplittableRandom(seed);
+      for (int i = 0; i < SHIPS; i++) {
+        speed[i] = random.nextDouble() * 21;
+        course[i] = random.nextDouble() * 360;
+        seconds[i] = random.nextDouble() * maxSeconds;
+        latitude[i] = random.nextDouble() * 180 - 90;
+        longitude[i] = random.nextDouble() * 360 - 180;
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+/**
+ * Runs {@link ShipDataService#forEachChangedSince} in a loop while writers update the fleet, and
+ * checks that the last change to every ship was delivered.
+ */
+class ChangeFeedTest {
+  private static final int SHIPS = 20_000;
+  private static final int WRITERS = 3;
+  private static final long WRITE_MILLIS = 1_000;
+  private static final int BATCH_SIZE = 1024;
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "OFF_HEAP"})
+  void deliversLastChangeOfEveryShip(StoreMode mode) throws InterruptedException {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.initializeShips(SHIPS);
+
+    long[] delivered = run(service, (random, shipId) -> {
+      if (random.nextInt(10) == 0) {
+        service.updateIdentityData(shipId);
+      } else {
+        service.updateKinematicData(shipId);
+      }
+    });
+
+    assertLastChangesDelivered(service, delivered);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "OFF_HEAP"})
+  void deliversLastChangeOfEveryShipUpdatedInBatches(StoreMode mode)
+      throws InterruptedException {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.initializeShips(SHIPS);
+
+    long[] delivered = run(service, (random, shipId) -> {
+      int[] batch = new int[BATCH_SIZE];
+      for (int i = 0; i < BATCH_SIZE; i++) {
+        batch[i] = random.nextInt(SHIPS) + 1;
+      }
+      if (random.nextInt(10) == 0) {
+        service.updateIdentityBatch(batch, BATCH_SIZE);
+      } else {
+        service.updateKinematicBatch(batch, BATCH_SIZE);
+      }
+    });
+
+    assertLastChangesDelivered(service, delivered);
+  }
+
+  /**
+   * Runs the writers and a change-feed consumer concurrently, then drains the feed once more and
+   * returns the highest version delivered per ship id.
+   */
+  static long[] run(ShipDataService service, Writer writer) throws InterruptedException {
+    long[] delivered = new long[SHIPS + 1];
+    AtomicBoolean writing = new AtomicBoolean(true);
+    Thread[] writers = new Thread[WRITERS];
+    for (int w = 0; w < WRITERS; w++) {
+      SplittableRandom random = new SplittableRandom(w);
+      writers[w] = new Thread(() -> {
+        while (writing.get()) {
+          writer.write(random, random.nextInt(SHIPS) + 1);
+        }
+      });
+      writers[w].start();
+    }
+
+    long watermark = 0;
+    long deadline = System.currentTimeMillis() + WRITE_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      watermark = service.forEachChangedSince(watermark, ship -> record(delivered, ship));
+    }
+    writing.set(false);
+    for (Thread thread : writers) {
+      thread.join();
+    }
+    service.forEachChangedSince(watermark, ship -> record(delivered, ship));
+    return delivered;
+  }
+
+  static void assertLastChangesDelivered(ShipDataService service, long[] delivered) {
+    int missed = 0;
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      if (delivered[shipId] != service.getShip(shipId).getVersion()) {
+        missed++;
+      }
+    }
+    assertEquals(0, missed, "ships whose last change was never delivered");
+  }
+
+  private static void record(long[] delivered, ShipData ship) {
+    int shipId = ship.getShipId();
+    delivered[shipId] = Math.max(delivered[shipId], ship.getVersion());
+  }
+
+  @FunctionalInterface
+  interface Writer {
+    void write(SplittableRandom random, int shipId);
+  }
+}
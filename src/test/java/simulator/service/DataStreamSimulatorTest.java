@@ -0,0 +1,132 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+class DataStreamSimulatorTest {
+
+  @Test
+  void sharesFollowOwnedIds() {
+    assertArrayEquals(new int[] {307, 143},
+        DataStreamSimulator.shares(450, new long[] {1023, 476}));
+    assertArrayEquals(new int[] {300, 0, 0, 0},
+        DataStreamSimulator.shares(300, new long[] {999, 0, 0, 0}));
+    assertArrayEquals(new int[] {0, 0}, DataStreamSimulator.shares(10, new long[] {0, 0}));
+  }
+
+  @Test
+  void shardsWithoutShipsDoNotDropUpdates() {
+    // 1,000 ids all fall in the first block, which shard 0 owns
+    ShipDataService service = service(1_000, 4);
+    DataStreamSimulator simulator = new DataStreamSimulator(service);
+    simulator.setKinematicUpdatePercentage(100);
+
+    simulator.runTick();
+
+    assertEquals(1_000, kinematicUpdates(service));
+  }
+
+  @Test
+  void everyShardUpdatesItsShipsAtTheSameRate() {
+    ShipDataService service = service(1_500, 2);
+    DataStreamSimulator simulator = new DataStreamSimulator(service);
+    simulator.setKinematicUpdatePercentage(30);
+
+    int ticks = 10;
+    for (int tick = 0; tick < ticks; tick++) {
+      simulator.runTick();
+    }
+
+    assertEquals(4_500, kinematicUpdates(service));
+    int idBound = service.getShipIdBound();
+    for (int i = 0; i < 2; i++) {
+      ShipShard shard = service.getShard(i);
+      // Three updates per ship, give or take one rounded update per tick
+      double expected = 3.0 * shard.ownedIds(idBound);
+      long actual = shard.getKinematicUpdates();
+      assertTrue(Math.abs(actual - expected) <= ticks, "shard " + i + ": " + actual
+          + " updates, expected " + expected);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "OFF_HEAP"})
+  void seededRunsReachTheSamePositions(StoreMode mode) throws InterruptedException {
+    // Ticks of the second run land at other wall-clock times
+    List<ShipData> first = seededRun(mode, 0);
+    List<ShipData> second = seededRun(mode, 20);
+
+    assertEquals(first.size(), second.size());
+    for (int i = 0; i < first.size(); i++) {
+      KinematicData expected = first.get(i).getKinematicData();
+      KinematicData actual = second.get(i).getKinematicData();
+      String ship = "ship " + first.get(i).getShipId();
+      assertEquals(expected.getSpeed(), actual.getSpeed(), ship);
+      assertEquals(expected.getCourse(), actual.getCourse(), ship);
+      assertEquals(expected.getLatitude(), actual.getLatitude(), ship);
+      assertEquals(expected.getLongitude(), actual.getLongitude(), ship);
+    }
+  }
+
+  @Test
+  void ticksStampFixesWithSimulatedTime() {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), StoreMode.COLUMNAR);
+    DataStreamSimulator simulator = new DataStreamSimulator(service);
+    simulator.setUpdateIntervalMs(5_000);
+    simulator.setKinematicUpdatePercentage(100);
+    service.initializeShips(100);
+    long start = simulator.getSimulatedTime();
+
+    simulator.runTick();
+
+    assertEquals(start + 5_000, simulator.getSimulatedTime());
+    long updated = service.getAllShips().stream()
+        .filter(ship -> ship.getLastUpdateTimestamp() == start + 5_000)
+        .count();
+    // Picks are random, so some ships are drawn twice and others not at all
+    assertTrue(updated > 50, updated + " ships fixed at the tick's time");
+  }
+
+  private static List<ShipData> seededRun(StoreMode mode, long pauseMillis)
+      throws InterruptedException {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(7),
+        new IdentityDataGenerator(7), mode);
+    service.setShardCount(2);
+    DataStreamSimulator simulator = new DataStreamSimulator(service);
+    simulator.setMembershipChangesPerTick(10);
+    service.initializeShips(3_000);
+    for (int tick = 0; tick < 5; tick++) {
+      Thread.sleep(pauseMillis);
+      simulator.runTick();
+    }
+    return service.getAllShips();
+  }
+
+  private static ShipDataService service(int ships, int shards) {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), StoreMode.COLUMNAR);
+    service.setShardCount(shards);
+    service.initializeShips(ships);
+    return service;
+  }
+
+  private static long kinematicUpdates(ShipDataService service) {
+    long updates = 0;
+    for (int i = 0; i < service.getShardCount(); i++) {
+      updates += service.getShard(i).getKinematicUpdates();
+    }
+    return updates;
+  }
+}
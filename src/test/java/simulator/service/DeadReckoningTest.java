@@ -0,0 +1,127 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+class DeadReckoningTest {
+  private static final int SHIPS = 2_000;
+  private static final long AGE_MILLIS = 90_000;
+  // Meters, plus the compact store's rounding
+  private static final double TOLERANCE = 0.1;
+  private static final double EARTH_RADIUS = 6371000; // meters
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void readsMoveShipsForTheAgeOfTheirFix(StoreMode mode) {
+    AtomicLong time = new AtomicLong(1_000_000);
+    ShipDataService service = service(mode, time);
+    double[][] fixes = readAll(service);
+
+    time.addAndGet(AGE_MILLIS);
+    service.setDeadReckoningEnabled(true);
+    double[][] reckoned = readAll(service);
+
+    double slack = TOLERANCE + (mode == StoreMode.COMPACT ? 0.1 : 0);
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      double[] fix = fixes[shipId];
+      double[] now = reckoned[shipId];
+      assertEquals(fix[KinematicDataGenerator.SPEED], now[KinematicDataGenerator.SPEED]);
+      assertEquals(fix[KinematicDataGenerator.COURSE], now[KinematicDataGenerator.COURSE]);
+      double expected = fix[KinematicDataGenerator.SPEED] * AGE_MILLIS / 1000.0;
+      double moved = distance(fix, now);
+      assertTrue(Math.abs(moved - expected) <= slack, String.format(
+          "%s ship %d moved %.3f m, expected %.3f m", mode, shipId, moved, expected));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void everyReadReckonsTheSamePosition(StoreMode mode) {
+    AtomicLong time = new AtomicLong(1_000_000);
+    ShipDataService service = service(mode, time);
+    time.addAndGet(AGE_MILLIS);
+    service.setDeadReckoningEnabled(true);
+
+    double[][] reckoned = readAll(service);
+    List<ShipData> all = service.getAllShips();
+    List<ShipData> streamed = service.stream().toList();
+    List<ShipData> parallel = service.parallelStream().toList();
+    for (int i = 0; i < SHIPS; i++) {
+      ShipData ship = service.getShip(i + 1);
+      assertPosition(reckoned[i + 1], ship);
+      assertPosition(reckoned[i + 1], all.get(i));
+      assertPosition(reckoned[i + 1], streamed.get(i));
+      assertPosition(reckoned[i + 1], parallel.get(i));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "OFF_HEAP"})
+  void readsLeaveTheFixAlone(StoreMode mode) {
+    AtomicLong time = new AtomicLong(1_000_000);
+    ShipDataService service = service(mode, time);
+    double[][] fixes = readAll(service);
+
+    time.addAndGet(AGE_MILLIS);
+    service.setDeadReckoningEnabled(true);
+    readAll(service);
+    assertEquals(1_000_000, service.getShip(1).getLastUpdateTimestamp());
+    service.setDeadReckoningEnabled(false);
+
+    double[][] after = readAll(service);
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      assertEquals(fixes[shipId][KinematicDataGenerator.LATITUDE],
+          after[shipId][KinematicDataGenerator.LATITUDE]);
+      assertEquals(fixes[shipId][KinematicDataGenerator.LONGITUDE],
+          after[shipId][KinematicDataGenerator.LONGITUDE]);
+    }
+  }
+
+  private static ShipDataService service(StoreMode mode, AtomicLong time) {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.setClock(time::get);
+    service.initializeShips(SHIPS);
+    return service;
+  }
+
+  private static double[][] readAll(ShipDataService service) {
+    double[][] states = new double[SHIPS + 1][KinematicDataGenerator.STATE_SIZE];
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      assertTrue(service.readKinematicData(shipId, states[shipId]));
+    }
+    return states;
+  }
+
+  private static void assertPosition(double[] expected, ShipData ship) {
+    KinematicData kinematic = ship.getKinematicData();
+    String name = "ship " + ship.getShipId();
+    assertEquals(expected[KinematicDataGenerator.LATITUDE], kinematic.getLatitude(), 1e-9, name);
+    assertEquals(expected[KinematicDataGenerator.LONGITUDE], kinematic.getLongitude(), 1e-9,
+        name);
+  }
+
+  /**
+   * Haversine distance in meters between the positions of two states.
+   */
+  private static double distance(double[] from, double[] to) {
+    double lat1 = from[KinematicDataGenerator.LATITUDE];
+    double lat2 = to[KinematicDataGenerator.LATITUDE];
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(
+        to[KinematicDataGenerator.LONGITUDE] - from[KinematicDataGenerator.LONGITUDE]);
+    double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+        * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+}
@@ -0,0 +1,63 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+/**
+ * Checks that {@link ShipDataService#stream()} and {@link ShipDataService#parallelStream()} walk
+ * the same ships as {@link ShipDataService#getAllShips()}, across several store pages and with
+ * slots freed and reused by churn.
+ */
+class FleetStreamTest {
+  // A few store pages, so the parallel stream splits
+  private static final int SHIPS = 10_000;
+  private static final int DEPARTURES = 1_000;
+  private static final int ARRIVALS = 1_500;
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void streamsMatchShipList(StoreMode mode) {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.initializeShips(SHIPS);
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < DEPARTURES; i++) {
+      service.removeShip(random.nextInt(SHIPS) + 1);
+    }
+    for (int i = 0; i < ARRIVALS; i++) {
+      service.addShip();
+    }
+
+    List<ShipData> expected = new ArrayList<>(service.getAllShips());
+    assertEquals(service.getShipCount(), expected.size());
+    assertSameShips(expected, service.stream().toList(), "stream");
+    assertSameShips(expected, service.parallelStream().toList(), "parallelStream");
+  }
+
+  private static void assertSameShips(List<ShipData> expected, List<ShipData> actual,
+      String scan) {
+    assertEquals(expected.size(), actual.size(), scan);
+    for (int i = 0; i < expected.size(); i++) {
+      ShipData want = expected.get(i);
+      ShipData got = actual.get(i);
+      String where = scan + " at " + i;
+      assertEquals(want.getShipId(), got.getShipId(), where);
+      assertEquals(want.getVersion(), got.getVersion(), where);
+      KinematicData wantKinematic = want.getKinematicData();
+      KinematicData gotKinematic = got.getKinematicData();
+      assertEquals(wantKinematic.getSpeed(), gotKinematic.getSpeed(), where);
+      assertEquals(wantKinematic.getLatitude(), gotKinematic.getLatitude(), where);
+      assertEquals(wantKinematic.getLongitude(), gotKinematic.getLongitude(), where);
+    }
+  }
+}
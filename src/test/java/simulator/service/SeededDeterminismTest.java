@@ -0,0 +1,135 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.IdentityData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+class SeededDeterminismTest {
+  private static final long SEED = 42;
+  // Several initialization chunks and a partial one
+  private static final int FLEET = 3 * (1 << 16) + 1_234;
+  private static final int SHARDED_FLEET = 20_000;
+  private static final int SHARDS = 4;
+  private static final int ROUNDS = 2_000;
+  private static final int BATCH = 16;
+  private static final long START = 1_700_000_000_000L;
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void parallelInitializationBuildsTheSequentialFleet(StoreMode mode) {
+    ShipDataService parallel = service(mode, new AtomicLong(START));
+    parallel.setParallelInitialization(true);
+    parallel.initializeShips(FLEET);
+    ShipDataService sequential = service(mode, new AtomicLong(START));
+    sequential.setParallelInitialization(false);
+    sequential.initializeShips(FLEET);
+
+    assertSameFleet(sequential, parallel);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void shardsOnThreadsMatchTheSameWorkDoneSequentially(StoreMode mode)
+      throws InterruptedException {
+    AtomicLong threadedTime = new AtomicLong(START);
+    ShipDataService threaded = shardedService(mode, threadedTime);
+    AtomicLong sequentialTime = new AtomicLong(START);
+    ShipDataService sequential = shardedService(mode, sequentialTime);
+    // Fixes age the same way in both runs
+    threadedTime.addAndGet(60_000);
+    sequentialTime.addAndGet(60_000);
+
+    List<Thread> owners = new ArrayList<>();
+    for (int i = 0; i < SHARDS; i++) {
+      ShipShard shard = threaded.getShard(i);
+      Thread owner = new Thread(() -> drive(shard, SHARDED_FLEET + 1));
+      owners.add(owner);
+      owner.start();
+    }
+    for (int i = 0; i < SHARDS; i++) {
+      drive(sequential.getShard(i), SHARDED_FLEET + 1);
+    }
+    for (Thread owner : owners) {
+      owner.join();
+    }
+
+    assertTrue(threaded.getTotalUpdates() > 0);
+    assertEquals(sequential.getTotalUpdates(), threaded.getTotalUpdates());
+    for (int i = 0; i < SHARDS; i++) {
+      assertEquals(sequential.getShard(i).getUpdateCount(), threaded.getShard(i).getUpdateCount());
+    }
+    assertSameFleet(sequential, threaded);
+  }
+
+  /**
+   * Mixes single and batched kinematic updates with identity updates, all picked from the
+   * shard's own stream.
+   */
+  private static void drive(ShipShard shard, int bound) {
+    RandomGenerator random = shard.getRandom();
+    int[] batch = new int[BATCH];
+    for (int round = 0; round < ROUNDS; round++) {
+      int shipId = shard.randomShipId(random, bound);
+      switch (round % 4) {
+        case 0:
+          for (int i = 0; i < BATCH; i++) {
+            batch[i] = shard.randomShipId(random, bound);
+          }
+          shard.updateKinematicBatch(batch, BATCH);
+          break;
+        case 1:
+          shard.updateIdentityData(shipId);
+          break;
+        default:
+          shard.updateKinematicData(shipId);
+          break;
+      }
+    }
+  }
+
+  private static ShipDataService service(StoreMode mode, AtomicLong time) {
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.setSeed(SEED);
+    service.setClock(time::get);
+    return service;
+  }
+
+  private static ShipDataService shardedService(StoreMode mode, AtomicLong time) {
+    ShipDataService service = service(mode, time);
+    service.setShardCount(SHARDS);
+    service.initializeShips(SHARDED_FLEET);
+    return service;
+  }
+
+  private static void assertSameFleet(ShipDataService expected, ShipDataService actual) {
+    assertEquals(expected.getShipIdBound(), actual.getShipIdBound());
+    double[] want = new double[KinematicDataGenerator.STATE_SIZE];
+    double[] got = new double[KinematicDataGenerator.STATE_SIZE];
+    for (int shipId = 1; shipId < expected.getShipIdBound(); shipId++) {
+      String name = "ship " + shipId;
+      assertTrue(expected.readKinematicData(shipId, want), name);
+      assertTrue(actual.readKinematicData(shipId, got), name);
+      for (int i = 0; i < want.length; i++) {
+        assertEquals(want[i], got[i], name);
+      }
+      ShipData wantShip = expected.getShip(shipId);
+      ShipData gotShip = actual.getShip(shipId);
+      assertEquals(wantShip.getLastUpdateTimestamp(), gotShip.getLastUpdateTimestamp(), name);
+      IdentityData wantIdentity = wantShip.getIdentityData();
+      IdentityData gotIdentity = gotShip.getIdentityData();
+      assertEquals(wantIdentity.toString(), gotIdentity.toString(), name);
+    }
+  }
+}
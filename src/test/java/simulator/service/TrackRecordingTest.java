@@ -0,0 +1,78 @@
+package simulator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.data.Track;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+import simulator.store.StoreMode;
+
+class TrackRecordingTest {
+  private static final int SHIPS = 500;
+  // Every clock read moves time on, so a timestamp taken after the update is not the fix time
+  private static final long TICK_MILLIS = 1_000;
+  // Track history keeps timestamps at 0.1 s
+  private static final long HISTORY_RESOLUTION = 100;
+  // Microdegrees, plus the compact store's rounding
+  private static final double DEGREES = 2e-6;
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void singleUpdatesRecordTheFixTheyWrote(StoreMode mode) {
+    ShipDataService service = service(mode);
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      service.updateKinematicData(shipId);
+      assertLatestPoint(service, shipId);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void batchUpdatesRecordTheFixTheyWrote(StoreMode mode) {
+    ShipDataService service = service(mode);
+    int[] batch = new int[SHIPS];
+    for (int i = 0; i < SHIPS; i++) {
+      batch[i] = i + 1;
+    }
+    assertEquals(SHIPS, service.updateKinematicBatch(batch, SHIPS));
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      assertLatestPoint(service, shipId);
+    }
+  }
+
+  private static ShipDataService service(StoreMode mode) {
+    AtomicLong time = new AtomicLong(System.currentTimeMillis());
+    ShipDataService service = new ShipDataService(new KinematicDataGenerator(1),
+        new IdentityDataGenerator(1), mode);
+    service.setClock(() -> time.addAndGet(TICK_MILLIS));
+    service.setTrackHistoryDepth(4);
+    service.setTrackArchiveEnabled(true);
+    service.initializeShips(SHIPS);
+    return service;
+  }
+
+  private static void assertLatestPoint(ShipDataService service, int shipId) {
+    ShipData ship = service.getShip(shipId);
+    KinematicData fix = ship.getKinematicData();
+    String name = "ship " + shipId;
+
+    Track archived = service.getArchivedTrack(shipId, Long.MIN_VALUE, Long.MAX_VALUE);
+    int last = archived.size() - 1;
+    assertEquals(ship.getLastUpdateTimestamp(), archived.getTimestamp(last), name);
+    assertEquals(fix.getLatitude(), archived.getLatitude(last), DEGREES, name);
+    assertEquals(fix.getLongitude(), archived.getLongitude(last), DEGREES, name);
+
+    Track recent = service.getRecentTrack(shipId, 1);
+    assertEquals(1, recent.size(), name);
+    long skew = ship.getLastUpdateTimestamp() - recent.getTimestamp(0);
+    assertTrue(skew >= 0 && skew < HISTORY_RESOLUTION, name + " recorded " + skew + " ms early");
+    assertEquals(fix.getLatitude(), recent.getLatitude(0), DEGREES, name);
+    assertEquals(fix.getLongitude(), recent.getLongitude(0), DEGREES, name);
+  }
+}
@@ -0,0 +1,75 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class DirtyShipSetTest {
+  private static final int MARKERS = 4;
+  // Spans several stripes, so markers also race on allocating them
+  private static final int IDS = 16 * DirtyShipSet.STRIPE_BITS + 123;
+
+  @Test
+  void drainReportsMarksInOrderAndClearsThem() {
+    DirtyShipSet dirty = new DirtyShipSet();
+    int[] marked = {70_000, 5, 64, 5, 63, 200_000, 0};
+    for (int shipId : marked) {
+      dirty.mark(shipId);
+    }
+    dirty.mark(-1);
+
+    List<Integer> reported = new ArrayList<>();
+    assertEquals(6, dirty.drain(reported::add));
+    assertEquals(List.of(0, 5, 63, 64, 70_000, 200_000), reported);
+    assertEquals(0, dirty.drain(shipId -> { }));
+    assertEquals(2, dirty.getDrainEpoch());
+  }
+
+  @Test
+  void drainsWhileMarkingLoseNoMark() throws InterruptedException {
+    DirtyShipSet dirty = new DirtyShipSet();
+    int[] reports = new int[IDS];
+    AtomicInteger running = new AtomicInteger(MARKERS);
+    List<Thread> markers = new ArrayList<>();
+    for (int m = 0; m < MARKERS; m++) {
+      int first = m;
+      Thread marker = new Thread(() -> {
+        // Each id is marked exactly once, by one marker
+        for (int shipId = first; shipId < IDS; shipId += MARKERS) {
+          dirty.mark(shipId);
+        }
+        running.decrementAndGet();
+      });
+      markers.add(marker);
+      marker.start();
+    }
+
+    int drains = 0;
+    int[] last = new int[1];
+    while (running.get() > 0) {
+      last[0] = -1;
+      dirty.drain(shipId -> {
+        assertTrue(shipId > last[0], shipId + " after " + last[0]);
+        last[0] = shipId;
+        reports[shipId]++;
+      });
+      drains++;
+    }
+    for (Thread marker : markers) {
+      marker.join();
+    }
+    // A bit set in the drained generation after its word was cleared shows up a drain later
+    dirty.drain(shipId -> reports[shipId]++);
+    dirty.drain(shipId -> reports[shipId]++);
+
+    assertTrue(drains > 0);
+    for (int shipId = 0; shipId < IDS; shipId++) {
+      assertEquals(1, reports[shipId], "ship " + shipId);
+    }
+    assertEquals(0, dirty.count());
+  }
+}
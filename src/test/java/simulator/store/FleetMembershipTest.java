@@ -0,0 +1,132 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+class FleetMembershipTest {
+  private static final int SHIPS = 10;
+
+  private final KinematicDataGenerator kinematic = new KinematicDataGenerator(3);
+  private final IdentityDataGenerator identity = new IdentityDataGenerator(3);
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void idsReleasedLongestAgoAreReusedFirst(StoreMode mode) {
+    FleetStore store = store(mode);
+    assertTrue(store.removeShip(3));
+    assertTrue(store.removeShip(7));
+    assertTrue(store.removeShip(5));
+    assertFalse(store.removeShip(5));
+    assertNull(store.getShip(5));
+
+    assertEquals(3, store.addShip(kinematic, identity));
+    assertEquals(7, store.addShip(kinematic, identity));
+    assertEquals(5, store.addShip(kinematic, identity));
+    assertEquals(SHIPS + 1, store.addShip(kinematic, identity));
+    assertEquals(SHIPS + 1, store.size());
+    assertEquals(SHIPS + 2, store.getShipIdBound());
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void releaseOrderSurvivesGrowingTheIdQueue(StoreMode mode) {
+    FleetStore store = store(mode);
+    for (int i = 0; i < 5 * SHIPS; i++) {
+      store.addShip(kinematic, identity);
+    }
+    List<Integer> released = new ArrayList<>();
+    for (int shipId = 2; shipId <= 40; shipId += 2) {
+      assertTrue(store.removeShip(shipId));
+      released.add(shipId);
+    }
+    // Move the head of the queue, then release more than it holds so it grows while wrapped
+    for (int i = 0; i < 5; i++) {
+      assertEquals((int) released.remove(0), store.addShip(kinematic, identity));
+    }
+    for (int shipId = 41; shipId <= 59; shipId += 2) {
+      assertTrue(store.removeShip(shipId));
+      released.add(shipId);
+    }
+
+    for (int expected : released) {
+      assertEquals(expected, store.addShip(kinematic, identity));
+    }
+    assertEquals(6 * SHIPS + 1, store.addShip(kinematic, identity));
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void newestFreedSlotIsFilledFirst(StoreMode mode) {
+    FleetStore store = store(mode);
+    store.removeShip(3); // slot 2
+    store.removeShip(7); // slot 6
+    // The view skips free slots
+    List<ShipData> slots = store.getAllShips();
+    assertEquals(SHIPS - 2, slots.size());
+    assertEquals(4, slots.get(2).getShipId());
+    assertEquals(9, slots.get(6).getShipId());
+
+    int first = store.addShip(kinematic, identity);
+    int second = store.addShip(kinematic, identity);
+    int third = store.addShip(kinematic, identity);
+
+    // Every slot is occupied again, so the view is in slot order
+    slots = store.getAllShips();
+    assertEquals(SHIPS + 1, slots.size());
+    assertEquals(first, slots.get(6).getShipId());
+    assertEquals(second, slots.get(2).getShipId());
+    // No free slot left, so the fleet is extended
+    assertEquals(third, slots.get(SHIPS).getShipId());
+    for (ShipData ship : slots) {
+      assertEquals(ship.getShipId(), store.getShip(ship.getShipId()).getShipId());
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void addedShipsExtendTheStorePastAPage(StoreMode mode) {
+    FleetStore store = store(mode);
+    int added = SlotFleet.PAGE_SIZE + 5;
+    for (int i = 0; i < added; i++) {
+      assertEquals(SHIPS + 1 + i, store.addShip(kinematic, identity));
+    }
+    assertEquals(SHIPS + added, store.size());
+    double[] state = new double[KinematicDataGenerator.STATE_SIZE];
+    for (int shipId = 1; shipId <= SHIPS + added; shipId++) {
+      assertTrue(store.readKinematicData(shipId, state), "ship " + shipId);
+    }
+    assertTrue(store.removeShip(SHIPS + added));
+    assertEquals(SHIPS + added, store.addShip(kinematic, identity));
+  }
+
+  private static FleetStore store(StoreMode mode) {
+    FleetStore store;
+    switch (mode) {
+      case COLUMNAR:
+        store = new ColumnarFleetStore();
+        break;
+      case COMPACT:
+        store = new ColumnarFleetStore(true);
+        break;
+      case OFF_HEAP:
+        store = new OffHeapFleetStore();
+        break;
+      case OBJECT:
+      default:
+        store = new HeapFleetStore();
+        break;
+    }
+    store.initialize(SHIPS, new KinematicDataGenerator(1), new IdentityDataGenerator(1), false);
+    return store;
+  }
+}
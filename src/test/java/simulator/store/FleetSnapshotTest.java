@@ -0,0 +1,109 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+class FleetSnapshotTest {
+  private static final int SHIPS = 4_000;
+  private static final int WRITERS = 4;
+  private static final int SNAPSHOTS = 100;
+  private static final int PASSES = 1_000;
+
+  @ParameterizedTest
+  @EnumSource(value = StoreMode.class, names = {"OBJECT", "COLUMNAR", "COMPACT", "OFF_HEAP"})
+  void everySlotHoldsTheStateOfOneVersion(StoreMode mode) throws InterruptedException {
+    FleetStore store = store(mode);
+    store.initialize(SHIPS, new KinematicDataGenerator(1), new IdentityDataGenerator(1), false);
+    FleetSnapshot initial = store.snapshot();
+    // Each ship has a single writer, so every fix it reports carries a version of its own
+    Map<Long, double[]> fixes = new ConcurrentHashMap<>();
+    KinematicFixListener recorder = (shipId, version, timestamp, speed, course, latitude,
+        longitude) -> fixes.put(version,
+            new double[] {shipId, timestamp, speed, course, latitude, longitude});
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    // Bounded, so the recorded fixes stay small
+    List<Thread> writers = new ArrayList<>();
+    for (int w = 0; w < WRITERS; w++) {
+      int first = w + 1;
+      KinematicDataGenerator generator = new KinematicDataGenerator(10 + w);
+      Thread writer = new Thread(() -> {
+        for (int pass = 0; pass < PASSES && running.get(); pass++) {
+          for (int shipId = first; shipId <= SHIPS && running.get(); shipId += WRITERS) {
+            store.updateKinematicData(shipId, generator, recorder);
+          }
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+    List<FleetSnapshot> snapshots = new ArrayList<>();
+    try {
+      for (int i = 0; i < SNAPSHOTS; i++) {
+        snapshots.add(store.snapshot());
+      }
+    } finally {
+      running.set(false);
+      for (Thread writer : writers) {
+        writer.join();
+      }
+    }
+
+    for (FleetSnapshot snapshot : snapshots) {
+      assertEquals(SHIPS, snapshot.size());
+      for (int i = 0; i < SHIPS; i++) {
+        long version = snapshot.kinematicVersion[i];
+        assertTrue(version <= snapshot.getEpoch(), "slot " + i + " version " + version);
+        if (version == initial.kinematicVersion[i]) {
+          assertSlot(initial, i, snapshot, i);
+          continue;
+        }
+        double[] fix = fixes.get(version);
+        assertNotNull(fix, "slot " + i + " version " + version);
+        String name = "slot " + i + " version " + version;
+        assertEquals((int) fix[0], snapshot.getShipId(i), name);
+        assertEquals((long) fix[1], snapshot.lastUpdate[i], name);
+        assertEquals(fix[2], snapshot.getSpeed(i), name);
+        assertEquals(fix[3], snapshot.getCourse(i), name);
+        assertEquals(fix[4], snapshot.getLatitude(i), name);
+        assertEquals(fix[5], snapshot.getLongitude(i), name);
+      }
+    }
+  }
+
+  private static void assertSlot(FleetSnapshot expected, int expectedIndex, FleetSnapshot actual,
+      int index) {
+    String name = "slot " + index;
+    assertEquals(expected.getShipId(expectedIndex), actual.getShipId(index), name);
+    assertEquals(expected.lastUpdate[expectedIndex], actual.lastUpdate[index], name);
+    assertEquals(expected.getSpeed(expectedIndex), actual.getSpeed(index), name);
+    assertEquals(expected.getCourse(expectedIndex), actual.getCourse(index), name);
+    assertEquals(expected.getLatitude(expectedIndex), actual.getLatitude(index), name);
+    assertEquals(expected.getLongitude(expectedIndex), actual.getLongitude(index), name);
+  }
+
+  private static FleetStore store(StoreMode mode) {
+    switch (mode) {
+      case COLUMNAR:
+        return new ColumnarFleetStore();
+      case COMPACT:
+        return new ColumnarFleetStore(true);
+      case OFF_HEAP:
+        return new OffHeapFleetStore();
+      case OBJECT:
+      default:
+        return new HeapFleetStore();
+    }
+  }
+}
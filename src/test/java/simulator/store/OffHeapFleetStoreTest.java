@@ -0,0 +1,126 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulator.data.KinematicData;
+import simulator.data.ShipData;
+import simulator.generator.IdentityDataGenerator;
+import simulator.generator.KinematicDataGenerator;
+
+class OffHeapFleetStoreTest {
+  private static final int SHIPS = 10_000;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void reinitializingLeavesPreviousFleetReadable() {
+    Path file = directory.resolve("fleet.dat");
+    OffHeapFleetStore store = new OffHeapFleetStore(file);
+    store.initialize(SHIPS, new KinematicDataGenerator(1), new IdentityDataGenerator(1), false);
+    List<ShipData> previous = store.getAllShips();
+    double[] latitudes = latitudes(previous);
+
+    // Same size, other ships: a generation sharing the previous file would overwrite it in place
+    store.initialize(SHIPS, new KinematicDataGenerator(2), new IdentityDataGenerator(2), false);
+
+    assertEquals(SHIPS, previous.size());
+    for (int i = 0; i < SHIPS; i++) {
+      assertEquals(latitudes[i], previous.get(i).getKinematicData().getLatitude(),
+          "previous ship " + (i + 1));
+    }
+    assertSameShips(expected(2, SHIPS), store.getAllShips());
+  }
+
+  @Test
+  void fileHoldsTheCurrentGeneration() throws IOException {
+    Path file = directory.resolve("fleet.dat");
+    OffHeapFleetStore store = new OffHeapFleetStore(file);
+    store.initialize(SHIPS, new KinematicDataGenerator(1), new IdentityDataGenerator(1), false);
+    List<ShipData> previous = store.getAllShips();
+    Path previousFile = store.generationFile();
+
+    store.initialize(100, new KinematicDataGenerator(2), new IdentityDataGenerator(2), false);
+    Path generationFile = store.generationFile();
+    assertNotEquals(previousFile, generationFile);
+    assertEquals(directory, generationFile.getParent());
+    long pageBytes = SlotFleet.PAGE_SIZE * OffHeapFleetStore.SHIP_RECORD.byteSize();
+    assertEquals(pageBytes, Files.size(generationFile));
+    // The previous fleet spans more pages than the new file holds
+    assertTrue(Files.exists(previousFile));
+    assertEquals(latitudes(previous)[SHIPS - 1],
+        previous.get(SHIPS - 1).getKinematicData().getLatitude());
+
+    // Growing the new generation extends its own file
+    for (int i = 0; i < SlotFleet.PAGE_SIZE; i++) {
+      store.addShip(new KinematicDataGenerator(3), new IdentityDataGenerator(3));
+    }
+    assertEquals(2 * pageBytes, Files.size(generationFile));
+    assertSameShips(expected(2, 100), store.getAllShips().subList(0, 100));
+  }
+
+  @Test
+  void filesAreCreatedOnFirstUseAndDeletedWithTheirGeneration() throws Exception {
+    Path file = directory.resolve("fleet.dat");
+    OffHeapFleetStore store = new OffHeapFleetStore(file);
+    assertNull(store.generationFile());
+    assertEquals(0, fileCount());
+
+    store.initialize(SHIPS, new KinematicDataGenerator(1), new IdentityDataGenerator(1), false);
+    Path previousFile = store.generationFile();
+    store.initialize(SHIPS, new KinematicDataGenerator(2), new IdentityDataGenerator(2), false);
+
+    // Nothing holds the first generation any more
+    for (int attempt = 0; attempt < 100 && Files.exists(previousFile); attempt++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertFalse(Files.exists(previousFile));
+    assertEquals(1, fileCount());
+    assertTrue(Files.exists(store.generationFile()));
+  }
+
+  private long fileCount() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private static List<ShipData> expected(long seed, int ships) {
+    OffHeapFleetStore anonymous = new OffHeapFleetStore();
+    anonymous.initialize(ships, new KinematicDataGenerator(seed), new IdentityDataGenerator(seed),
+        false);
+    return anonymous.getAllShips();
+  }
+
+  private static double[] latitudes(List<ShipData> ships) {
+    double[] latitudes = new double[ships.size()];
+    for (int i = 0; i < latitudes.length; i++) {
+      latitudes[i] = ships.get(i).getKinematicData().getLatitude();
+    }
+    return latitudes;
+  }
+
+  private static void assertSameShips(List<ShipData> expected, List<ShipData> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      KinematicData want = expected.get(i).getKinematicData();
+      KinematicData got = actual.get(i).getKinematicData();
+      assertEquals(want.getLatitude(), got.getLatitude(), "ship " + (i + 1));
+      assertEquals(want.getLongitude(), got.getLongitude(), "ship " + (i + 1));
+      assertEquals(expected.get(i).getIdentityData().getCallSign(),
+          actual.get(i).getIdentityData().getCallSign(), "ship " + (i + 1));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ShipIndexTest {
+
+  @Test
+  void idsBelowTheWindowBaseGoToTheSparseTable() {
+    ShipIndex index = new ShipIndex();
+    // The first id sets the base of the dense window
+    assertEquals(ShipIndex.ABSENT, index.put(1_000, 0));
+    for (int i = 1; i <= 200; i++) {
+      assertEquals(ShipIndex.ABSENT, index.put(1_000 - i, i));
+    }
+
+    assertEquals(201, index.size());
+    assertEquals(0, index.slotOf(1_000));
+    for (int i = 1; i <= 200; i++) {
+      assertEquals(i, index.slotOf(1_000 - i), "id " + (1_000 - i));
+    }
+    assertEquals(ShipIndex.ABSENT, index.slotOf(1_000 - 201));
+    assertEquals(ShipIndex.ABSENT, index.slotOf(-5));
+  }
+
+  @Test
+  void removedSparseIdsCanBePutAgain() {
+    ShipIndex index = ShipIndex.contiguous(1, 100);
+    int far = 1_000_000;
+    // Enough turnover to rehash away the tombstones several times
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 40; i++) {
+        assertEquals(ShipIndex.ABSENT, index.put(far + i, round * 100 + i), "round " + round);
+      }
+      for (int i = 0; i < 40; i += 2) {
+        assertEquals(round * 100 + i, index.remove(far + i), "round " + round);
+      }
+      for (int i = 0; i < 40; i += 2) {
+        assertEquals(ShipIndex.ABSENT, index.slotOf(far + i));
+        assertEquals(ShipIndex.ABSENT, index.remove(far + i));
+      }
+      for (int i = 1; i < 40; i += 2) {
+        assertEquals(round * 100 + i, index.slotOf(far + i));
+        assertEquals(round * 100 + i, index.remove(far + i));
+      }
+      assertEquals(100, index.size());
+    }
+    assertEquals(0, index.slotOf(1));
+    assertEquals(99, index.slotOf(100));
+  }
+
+  @Test
+  void sparseIdsMoveIntoTheGrowingWindow() {
+    ShipIndex index = ShipIndex.contiguous(1, 1_000);
+    // Beyond what the window may grow to in one step
+    index.put(5_000, 7);
+    index.put(9_000, 8);
+
+    for (int id = 1_001; id <= 4_999; id++) {
+      index.put(id, id);
+    }
+    assertEquals(7, index.slotOf(5_000));
+    assertEquals(8, index.slotOf(9_000));
+    index.put(7_000, 9);
+
+    assertEquals(7, index.slotOf(5_000));
+    assertEquals(8, index.slotOf(9_000));
+    assertEquals(9, index.slotOf(7_000));
+    assertEquals(7, index.remove(5_000));
+    assertEquals(ShipIndex.ABSENT, index.slotOf(5_000));
+    assertEquals(1_000 + 3_999 + 2, index.size());
+    for (int id = 1_001; id <= 4_999; id++) {
+      assertEquals(id, index.slotOf(id), "id " + id);
+    }
+  }
+
+  @Test
+  void matchesAMapUnderRandomOperations() {
+    SplittableRandom random = new SplittableRandom(5);
+    ShipIndex index = ShipIndex.contiguous(1, 500);
+    Map<Integer, Integer> expected = new HashMap<>();
+    for (int id = 1; id <= 500; id++) {
+      expected.put(id, id - 1);
+    }
+    int[] ids = new int[4];
+    int[] slots = new int[ids.length];
+
+    for (int step = 0; step < 50_000; step++) {
+      int id = randomId(random);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.getOrDefault(id, ShipIndex.ABSENT), index.remove(id), "remove " + id);
+        expected.remove(id);
+      } else {
+        int slot = random.nextInt(1 << 20);
+        Integer previous = expected.put(id, slot);
+        assertEquals(previous == null ? ShipIndex.ABSENT : previous, index.put(id, slot),
+            "put " + id);
+      }
+      assertEquals(expected.size(), index.size());
+
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = randomId(random);
+      }
+      index.slotsOf(ids, ids.length, slots);
+      for (int i = 0; i < ids.length; i++) {
+        assertEquals(expected.getOrDefault(ids[i], ShipIndex.ABSENT), slots[i], "id " + ids[i]);
+      }
+    }
+    for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), index.slotOf(entry.getKey()), "id " + entry.getKey());
+    }
+  }
+
+  /**
+   * Ids inside, just past and far beyond the initial window, and below it.
+   */
+  private static int randomId(SplittableRandom random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return 1 + random.nextInt(600);
+      case 1:
+        return 500 + random.nextInt(3_000);
+      case 2:
+        return 100_000 + random.nextInt(2_000);
+      default:
+        return -random.nextInt(300);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import simulator.data.CompactKinematics;
+
+/**
+ * Runs random queries against a {@link TimeSeriesStore} and a brute-force scan of the same points.
+ */
+class TimeSeriesStoreTest {
+  private static final int SHIPS = 3_000;
+  private static final int STEPS = 60;
+  private static final long INTERVAL_MILLIS = 10_000;
+  private static final int SHIP_TYPES = 6;
+  private static final long START = 1_700_000_000_000L;
+  private static final int QUERIES = 500;
+
+  @Test
+  void queriesMatchBruteForce() {
+    // Small chunks, so queries cross many of them and skip or take some whole
+    TimeSeriesStore series = new TimeSeriesStore(2_000, 45_000);
+    Points points = fill(series, new SplittableRandom(1));
+    assertEquals(points.count, series.getPointCount());
+
+    SplittableRandom random = new SplittableRandom(2);
+    for (int q = 0; q < QUERIES; q++) {
+      long from = START + random.nextLong(STEPS * INTERVAL_MILLIS);
+      long to = from + random.nextLong(STEPS * INTERVAL_MILLIS / 4);
+      int type = random.nextInt(SHIP_TYPES + 1) - 1; // ANY_TYPE included
+      double minLatitude = -90;
+      double maxLatitude = 90;
+      double minLongitude = -180;
+      double maxLongitude = 180;
+      if (random.nextBoolean()) {
+        minLatitude = random.nextDouble(-90, 60);
+        maxLatitude = minLatitude + random.nextDouble(30);
+        minLongitude = random.nextDouble(-180, 120);
+        maxLongitude = minLongitude + random.nextDouble(60);
+      }
+
+      TimeSeriesStore.Summary summary = series.summarizeSpeed(from, to, type, minLatitude,
+          maxLatitude, minLongitude, maxLongitude);
+      TimeSeriesStore.Summary expected = points.scan(from, to, type, minLatitude, maxLatitude,
+          minLongitude, maxLongitude);
+      String query = String.format("query %d: %d..%d type %d, %.3f..%.3f, %.3f..%.3f", q, from,
+          to, type, minLatitude, maxLatitude, minLongitude, maxLongitude);
+      assertEquals(expected.getCount(), summary.getCount(), query);
+      assertEquals(expected.getSum(), summary.getSum(), 1e-9 * Math.abs(expected.getSum()),
+          query);
+      assertEquals(expected.getMin(), summary.getMin(), query);
+      assertEquals(expected.getMax(), summary.getMax(), query);
+    }
+  }
+
+  @Test
+  void narrowQueriesSkipChunks() {
+    TimeSeriesStore series = new TimeSeriesStore(2_000, 45_000);
+    fill(series, new SplittableRandom(3));
+
+    long from = START + STEPS * INTERVAL_MILLIS / 2;
+    TimeSeriesStore.Summary summary =
+        series.summarizeSpeed(from, from + INTERVAL_MILLIS, TimeSeriesStore.ANY_TYPE);
+
+    assertTrue(summary.getCount() > 0);
+    assertTrue(summary.getChunksSkipped() > summary.getChunksScanned(), summary.toString());
+  }
+
+  @Test
+  void emptyStoreReturnsEmptySummary() {
+    TimeSeriesStore.Summary summary =
+        new TimeSeriesStore().summarizeSpeed(0, Long.MAX_VALUE, TimeSeriesStore.ANY_TYPE);
+
+    assertEquals(0, summary.getCount());
+    assertTrue(Double.isNaN(summary.getMean()));
+  }
+
+  /**
+   * Appends a step of reports for every ship per interval, spread over the interval, while some
+   * ships change type.
+   */
+  private static Points fill(TimeSeriesStore series, SplittableRandom random) {
+    int[] types = new int[SHIPS + 1];
+    for (int shipId = 1; shipId <= SHIPS; shipId++) {
+      types[shipId] = random.nextInt(SHIP_TYPES);
+      series.setShipType(shipId, types[shipId]);
+    }
+    Points points = new Points(SHIPS * STEPS);
+    for (int step = 0; step < STEPS; step++) {
+      for (int change = 0; change < SHIPS / 100; change++) {
+        int shipId = random.nextInt(SHIPS) + 1;
+        types[shipId] = random.nextInt(SHIP_TYPES);
+        series.setShipType(shipId, types[shipId]);
+      }
+      for (int shipId = 1; shipId <= SHIPS; shipId++) {
+        long timestamp = START + step * INTERVAL_MILLIS + random.nextLong(INTERVAL_MILLIS);
+        double speed = random.nextDouble(21);
+        double latitude = random.nextDouble(-90, 90);
+        double longitude = random.nextDouble(-180, 180);
+        series.append(shipId, timestamp, speed, random.nextDouble(360), latitude, longitude);
+        points.add(timestamp, types[shipId], speed, latitude, longitude);
+      }
+    }
+    return points;
+  }
+
+  /**
+   * The appended points as the store keeps them, in plain arrays.
+   */
+  private static final class Points {
+    final long[] time;
+    final int[] type;
+    final float[] speed;
+    final int[] latitude;
+    final int[] longitude;
+    int count;
+
+    Points(int capacity) {
+      time = new long[capacity];
+      type = new int[capacity];
+      speed = new float[capacity];
+      latitude = new int[capacity];
+      longitude = new int[capacity];
+    }
+
+    void add(long timestamp, int shipType, double speedValue, double latitudeValue,
+        double longitudeValue) {
+      time[count] = timestamp;
+      type[count] = shipType;
+      speed[count] = (float) speedValue;
+      latitude[count] = CompactKinematics.encodeDegrees(latitudeValue);
+      longitude[count] = CompactKinematics.encodeDegrees(longitudeValue);
+      count++;
+    }
+
+    TimeSeriesStore.Summary scan(long from, long to, int shipType, double minLatitude,
+        double maxLatitude, double minLongitude, double maxLongitude) {
+      int minLat = CompactKinematics.encodeDegrees(minLatitude);
+      int maxLat = CompactKinematics.encodeDegrees(maxLatitude);
+      int minLon = CompactKinematics.encodeDegrees(minLongitude);
+      int maxLon = CompactKinematics.encodeDegrees(maxLongitude);
+      TimeSeriesStore.Summary summary = new TimeSeriesStore.Summary();
+      for (int i = 0; i < count; i++) {
+        if (time[i] >= from && time[i] <= to
+            && (shipType == TimeSeriesStore.ANY_TYPE || type[i] == shipType)
+            && latitude[i] >= minLat && latitude[i] <= maxLat
+            && longitude[i] >= minLon && longitude[i] <= maxLon) {
+          summary.add(1, speed[i], speed[i], speed[i]);
+        }
+      }
+      return summary;
+    }
+  }
+}
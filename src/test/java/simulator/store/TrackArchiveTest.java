@@ -0,0 +1,108 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import simulator.data.CompactKinematics;
+import simulator.data.Track;
+
+class TrackArchiveTest {
+  private static final int SHIP = 3;
+  private static final int BLOCK_POINTS = 16;
+  private static final int POINTS = 100;
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  void pointsDecodeAsAppended() {
+    TrackArchive archive = new TrackArchive(BLOCK_POINTS);
+    double[][] points = fill(archive);
+
+    Track track = archive.read(SHIP);
+
+    assertEquals(POINTS, archive.getPointCount());
+    assertEquals(POINTS, track.size());
+    for (int i = 0; i < POINTS; i++) {
+      assertPoint(points[i], track, i);
+    }
+  }
+
+  @Test
+  void rangeReadsSpanBlocks() {
+    TrackArchive archive = new TrackArchive(BLOCK_POINTS);
+    double[][] points = fill(archive);
+    int first = BLOCK_POINTS - 3;
+    int last = 3 * BLOCK_POINTS + 5;
+
+    Track track = archive.read(SHIP, (long) points[first][0], (long) points[last][0]);
+
+    assertEquals(last - first + 1, track.size());
+    for (int i = first; i <= last; i++) {
+      assertPoint(points[i], track, i - first);
+    }
+  }
+
+  @Test
+  void pointsOfOlderUpdatesAreDropped() {
+    TrackArchive archive = new TrackArchive(BLOCK_POINTS);
+    archive.append(SHIP, 5, START + 5_000, 5, 90, 10.5, 20.5);
+    // Written before version 5 but reported after it
+    archive.append(SHIP, 4, START + 4_000, 5, 90, 10.4, 20.4);
+    // A batch may update a ship twice under one version
+    archive.append(SHIP, 5, START + 5_100, 5, 90, 10.6, 20.6);
+    archive.append(SHIP, 6, START + 6_000, 5, 90, 10.7, 20.7);
+
+    Track track = archive.read(SHIP, START, START + 10_000);
+
+    assertEquals(3, track.size());
+    assertEquals(START + 5_000, track.getTimestamp(0));
+    assertEquals(START + 5_100, track.getTimestamp(1));
+    assertEquals(START + 6_000, track.getTimestamp(2));
+    assertEquals(3, archive.getPointCount());
+  }
+
+  @Test
+  void removedShipAcceptsAnyVersion() {
+    TrackArchive archive = new TrackArchive(BLOCK_POINTS);
+    archive.append(SHIP, 9, START, 5, 90, 10.0, 20.0);
+
+    archive.remove(SHIP);
+    archive.append(SHIP, 1, START + 1_000, 5, 90, 11.0, 21.0);
+
+    Track track = archive.read(SHIP);
+    assertEquals(1, track.size());
+    assertEquals(11.0, track.getLatitude(0), 1e-6);
+    assertEquals(1, archive.getPointCount());
+  }
+
+  /**
+   * Appends a track that turns, slows down and crosses the antimeridian; returns the quantized
+   * points as {timestamp, speed, course, latitude, longitude}.
+   */
+  private static double[][] fill(TrackArchive archive) {
+    double[][] points = new double[POINTS][];
+    for (int i = 0; i < POINTS; i++) {
+      long timestamp = START + i * 5_000L + (i % 7) * 13;
+      double speed = Math.max(0, 12 - i * 0.1);
+      double course = (350 + i * 3.5) % 360;
+      double latitude = -10 + i * 0.003;
+      double longitude = 179.9 + i * 0.004;
+      longitude = longitude > 180 ? longitude - 360 : longitude;
+      archive.append(SHIP, i + 1, timestamp, speed, course, latitude, longitude);
+      points[i] = new double[] {timestamp,
+          CompactKinematics.decodeSpeed(CompactKinematics.encodeSpeed(speed)),
+          CompactKinematics.decodeCourse(CompactKinematics.encodeCourse(course)),
+          CompactKinematics.decodeDegrees(CompactKinematics.encodeDegrees(latitude)),
+          CompactKinematics.decodeDegrees(CompactKinematics.encodeDegrees(longitude))};
+    }
+    return points;
+  }
+
+  private static void assertPoint(double[] expected, Track track, int index) {
+    String name = "point " + index;
+    assertEquals((long) expected[0], track.getTimestamp(index), name);
+    assertEquals(expected[1], track.getSpeed(index), name);
+    assertEquals(expected[2], track.getCourse(index), name);
+    assertEquals(expected[3], track.getLatitude(index), name);
+    assertEquals(expected[4], track.getLongitude(index), name);
+  }
+}
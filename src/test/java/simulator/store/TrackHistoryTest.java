@@ -0,0 +1,129 @@
+package simulator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import simulator.data.KinematicData;
+import simulator.data.Track;
+import simulator.generator.KinematicDataGenerator;
+
+class TrackHistoryTest {
+  private static final int SHIP = 7;
+  private static final int SHIPS = 50;
+  private static final int POINTS = 720;
+  private static final long INTERVAL_MS = 1_000;
+  private static final double EARTH_RADIUS = 6371000; // meters
+  // Stored points are rounded to microdegrees, about 11 cm
+  private static final double QUANTIZATION = 0.25;
+
+  @Test
+  void pointsOfOlderUpdatesAreDropped() {
+    TrackHistory history = new TrackHistory(8);
+    long now = System.currentTimeMillis();
+
+    history.record(SHIP, 3, now + 3_000, 5, 90, 10.3, 20.3);
+    // Written before version 3 but reported after it
+    history.record(SHIP, 2, now + 2_000, 5, 90, 10.2, 20.2);
+    // A batch may update a ship twice under one version
+    history.record(SHIP, 3, now + 3_100, 5, 90, 10.4, 20.4);
+
+    Track track = history.lastPoints(SHIP, 8);
+    assertEquals(2, track.size());
+    assertEquals(10.3, track.getLatitude(0), 1e-6);
+    assertEquals(10.4, track.getLatitude(1), 1e-6);
+    assertEquals(3, history.getOfferedPoints());
+    assertEquals(2, history.getStoredPoints());
+  }
+
+  @Test
+  void clearedShipAcceptsAnyVersion() {
+    TrackHistory history = new TrackHistory(8);
+    long now = System.currentTimeMillis();
+    history.record(SHIP, 9, now, 5, 90, 10.0, 20.0);
+
+    history.clear(SHIP);
+    history.record(SHIP, 1, now + 1_000, 5, 90, 11.0, 21.0);
+
+    Track track = history.lastPoints(SHIP, 8);
+    assertEquals(1, track.size());
+    assertEquals(11.0, track.getLatitude(0), 1e-6);
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0, 10, 50, 250})
+  void everyOfferedPointLiesWithinTheToleranceOfTheStoredTrack(double tolerance) {
+    KinematicDataGenerator generator = new KinematicDataGenerator(17);
+    TrackHistory history = new TrackHistory(POINTS, tolerance);
+    long base = System.currentTimeMillis();
+    double[][][] tracks = new double[SHIPS][POINTS][];
+    for (int ship = 0; ship < SHIPS; ship++) {
+      KinematicData initial = generator.generateInitialData();
+      double[] state = {
+          initial.getSpeed(), initial.getCourse(), initial.getLatitude(), initial.getLongitude()
+      };
+      for (int step = 0; step < POINTS; step++) {
+        generator.advance(state, INTERVAL_MS / 1000.0);
+        tracks[ship][step] = state.clone();
+        history.record(ship, step + 1, base + step * INTERVAL_MS,
+            state[KinematicDataGenerator.SPEED], state[KinematicDataGenerator.COURSE],
+            state[KinematicDataGenerator.LATITUDE], state[KinematicDataGenerator.LONGITUDE]);
+      }
+    }
+
+    assertEquals((long) SHIPS * POINTS, history.getOfferedPoints());
+    if (tolerance > 0) {
+      assertTrue(history.getStoredPoints() < history.getOfferedPoints() / 2,
+          history.getStoredPoints() + " points kept");
+    } else {
+      assertEquals(history.getOfferedPoints(), history.getStoredPoints());
+    }
+    for (int ship = 0; ship < SHIPS; ship++) {
+      Track stored = history.lastPoints(ship, POINTS);
+      double[] latest = tracks[ship][POINTS - 1];
+      int newest = stored.size() - 1;
+      assertEquals(base + (POINTS - 1) * INTERVAL_MS, stored.getTimestamp(newest), 100);
+      assertEquals(latest[KinematicDataGenerator.LATITUDE], stored.getLatitude(newest), 1e-6);
+      assertEquals(latest[KinematicDataGenerator.LONGITUDE], stored.getLongitude(newest), 1e-6);
+
+      int segment = 0;
+      for (int step = 0; step < POINTS; step++) {
+        long timestamp = base + step * INTERVAL_MS;
+        while (segment + 1 < newest && stored.getTimestamp(segment + 1) <= timestamp) {
+          segment++;
+        }
+        double distance = distanceToSegment(tracks[ship][step], stored, segment);
+        assertTrue(distance <= tolerance + QUANTIZATION,
+            "ship " + ship + " step " + step + " is " + distance + " m off");
+      }
+    }
+  }
+
+  /**
+   * Distance in meters of a point from the stored segment starting at {@code segment}, in a local
+   * planar frame.
+   */
+  private static double distanceToSegment(double[] point, Track stored, int segment) {
+    double fromLatitude = stored.getLatitude(segment);
+    double fromLongitude = stored.getLongitude(segment);
+    double scale = Math.cos(Math.toRadians(fromLatitude));
+    double px = east(point[KinematicDataGenerator.LONGITUDE] - fromLongitude, scale);
+    double py = north(point[KinematicDataGenerator.LATITUDE] - fromLatitude);
+    double sx = east(stored.getLongitude(segment + 1) - fromLongitude, scale);
+    double sy = north(stored.getLatitude(segment + 1) - fromLatitude);
+    double lengthSquared = sx * sx + sy * sy;
+    double t = lengthSquared == 0 ? 0
+        : Math.max(0, Math.min(1, (px * sx + py * sy) / lengthSquared));
+    return Math.hypot(px - t * sx, py - t * sy);
+  }
+
+  private static double east(double dLon, double scale) {
+    return Math.toRadians((dLon + 540) % 360 - 180) * scale * EARTH_RADIUS;
+  }
+
+  private static double north(double dLat) {
+    return Math.toRadians(dLat) * EARTH_RADIUS;
+  }
+}